@@ -1,15 +1,45 @@
 import db.DatabaseConnection;
+import db.ShardMap;
+import db.SchemaManager;
 import gui.LoginFrame;
+import metrics.MetricsRegistry;
+import model.QuestionStore;
+import server.QuizHttpServer;
+import service.AnalyticsRollup;
+import service.AnswerLog;
+import service.DifficultyCalibrator;
+import service.Leaderboard;
+import service.QuestionBank;
+import service.QuestionImporter;
+import service.QuestionLoader;
+import service.QuestionStats;
+import service.QuizEngine;
+import service.ResultWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Main - Entry point for AI-Based Online Quiz System
  * Initializes database connection and launches login GUI
+ * (or the headless JSON API with --server [port],
+ * or write a question snapshot with --export-snapshot [file],
+ * or bulk-load questions with --import file.csv|file.jsonl,
+ * or re-fit question difficulty from the answer log with --calibrate [logDir] [--dry-run])
  * 
  * @author Your Name
  * @version 1.0
  */
 public class Main {
     
+    private static final String DEFAULT_SNAPSHOT_FILE = "questions.snap";
+    
     public static void main(String[] args) {
         
         // Print application header
@@ -19,7 +49,11 @@ public class Main {
         System.out.println("🔄 Testing database connection...");
         boolean connected = DatabaseConnection.testConnection();
         
-        if (!connected) {
+        if (!connected && QuestionBank.getInstance().hasSnapshotFile() && !isTool(args)) {
+            // Degraded mode: questions come from the mapped snapshot, results spill to disk
+            System.err.println("\n⚠ Database unavailable, serving questions from snapshot "
+                + QuestionBank.getInstance().getSnapshotFile() + "\n");
+        } else if (!connected) {
             System.err.println("\n❌ FATAL ERROR: Cannot connect to database!");
             System.err.println("Please ensure:");
             System.err.println("  1. MySQL server is running");
@@ -27,15 +61,181 @@ public class Main {
             System.err.println("  3. Username/password in DatabaseConnection.java are correct");
             System.err.println("  4. MySQL JDBC driver (mysql-connector-java.jar) is in classpath");
             System.exit(1);
+        } else {
+            System.out.println("✓ Database connection successful!\n");
+            // Create missing tables/indexes and warn about hot queries that would full-scan
+            SchemaManager.checkDatabases();
+            if (!isTool(args)) {
+                Leaderboard.getInstance().rebuildAsync();
+                startAnalyticsBackfill();
+            }
+        }
+        
+        // Flush queued results, question stats and the answer log, then release pooled connections on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            ResultWriter.shutdownInstance();
+            QuestionStats.shutdownInstance();
+            AnswerLog.shutdownInstance();
+            DatabaseConnection.closeConnection();
+        }));
+        
+        // Optional periodic metrics dump: -Dquiz.metrics.dump.seconds=60
+        MetricsRegistry.getInstance().startPeriodicDump(Long.getLong("quiz.metrics.dump.seconds", 0L));
+        
+        // Export mode: write the questions table to a snapshot file and exit
+        if (isExport(args)) {
+            exportSnapshot(args);
+            return;
+        }
+        
+        // Import mode: bulk-load a question file and exit
+        if (isImport(args)) {
+            importQuestions(args);
+            return;
+        }
+        
+        // Calibration mode: re-fit difficulty labels from logged answers and exit
+        if (isCalibrate(args)) {
+            calibrateDifficulty(args);
+            return;
         }
         
-        System.out.println("✓ Database connection successful!\n");
+        // Headless mode: serve the JSON API instead of the GUI
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args);
+            return;
+        }
         
         // Launch GUI
         System.out.println("🚀 Launching AI Quiz System GUI...\n");
         new LoginFrame();
     }
     
+    /**
+     * Start headless HTTP API: java Main --server [port]
+     */
+    private static void startServer(String[] args) {
+        int port = QuizHttpServer.DEFAULT_PORT;
+        if (args.length > 1) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("❌ Usage: java Main --server [port]");
+                System.exit(1);
+            }
+        }
+        try {
+            System.out.println("🚀 Starting AI Quiz System API...\n");
+            new QuizHttpServer(QuizEngine.getInstance(), port).start();
+        } catch (IOException e) {
+            System.err.println("❌ Cannot start API server on port " + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Fill analytics rollups from saved results in the background
+     */
+    private static void startAnalyticsBackfill() {
+        try {
+            AnalyticsRollup.getInstance().startBackfill();
+        } catch (SQLException e) {
+            System.err.println("✗ Analytics backfill not started: " + e.getMessage());
+        }
+    }
+    
+    private static boolean isExport(String[] args) {
+        return args.length > 0 && args[0].equals("--export-snapshot");
+    }
+    
+    private static boolean isImport(String[] args) {
+        return args.length > 0 && args[0].equals("--import");
+    }
+    
+    private static boolean isCalibrate(String[] args) {
+        return args.length > 0 && args[0].equals("--calibrate");
+    }
+    
+    /**
+     * Offline tools run once and exit, so they skip the leaderboard and analytics warm-up
+     */
+    private static boolean isTool(String[] args) {
+        return isExport(args) || isImport(args) || isCalibrate(args);
+    }
+    
+    /**
+     * Write the questions table to a memory-mappable snapshot: java Main --export-snapshot [file]
+     * Start with -Dquiz.bank.snapshot=file to load the bank from it
+     */
+    private static void exportSnapshot(String[] args) {
+        Path file = Paths.get(args.length > 1 ? args[1] : DEFAULT_SNAPSHOT_FILE);
+        long start = System.nanoTime();
+        try {
+            QuestionStore store;
+            ShardMap shards = DatabaseConnection.getShardMap();
+            if (shards != null) {
+                // Every shard's questions, like the bank itself loads them
+                store = QuestionLoader.loadAll(shards);
+            } else {
+                try (Connection connection = DatabaseConnection.getReadConnection()) {
+                    store = QuestionLoader.loadAll(connection);
+                }
+            }
+            store.writeSnapshot(file);
+            System.out.printf("✓ Exported %d questions to %s (%d KB) in %d ms%n", store.size(), file,
+                Files.size(file) / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException | IOException | IllegalStateException e) {
+            System.err.println("❌ Snapshot export failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Bulk-load questions from CSV or JSON Lines: java Main --import file
+     * Rerun the same command after a failure to resume where it stopped
+     */
+    private static void importQuestions(String[] args) {
+        if (args.length < 2) {
+            System.err.println("❌ Usage: java Main --import questions.csv|questions.jsonl");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[1]);
+        System.out.println("📥 Importing questions from " + file + "...");
+        try {
+            QuestionImporter.Report report = new QuestionImporter().importFile(file);
+            System.out.println("✓ Imported " + report);
+        } catch (SQLException | IOException e) {
+            System.err.println("❌ Question import failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Re-fit question difficulty from logged answers: java Main --calibrate [logDir] [--dry-run]
+     * With --dry-run the new levels are only counted, not written
+     */
+    private static void calibrateDifficulty(String[] args) {
+        boolean dryRun = Arrays.asList(args).contains("--dry-run");
+        Path dir = Paths.get(args.length > 1 && !args[1].startsWith("--") ? args[1]
+            : AnswerLog.LOG_DIR.isEmpty() ? AnswerLog.DEFAULT_DIR : AnswerLog.LOG_DIR);
+        System.out.println("🔄 Calibrating question difficulty from " + dir + "...");
+        try {
+            DifficultyCalibrator.Result result = new DifficultyCalibrator().fit(AnswerLog.answers(dir, DatabaseConnection.getShardMap()));
+            System.out.println("✓ Fitted " + result.getStatsSummary());
+            
+            Map<Long, Integer> labels = DifficultyCalibrator.loadLabels();
+            Map<Long, Integer> changes = result.relabel(labels);
+            System.out.printf("✓ %d of %d questions change level (minimum %d answers)%n", changes.size(),
+                labels.size(), DifficultyCalibrator.DEFAULT_MIN_ATTEMPTS);
+            if (!dryRun) {
+                System.out.println("✓ Updated " + DifficultyCalibrator.writeBack(changes) + " questions");
+            }
+        } catch (SQLException | IOException | IllegalStateException e) {
+            System.err.println("❌ Difficulty calibration failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
     /**
      * Print application header
      */
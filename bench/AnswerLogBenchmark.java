@@ -0,0 +1,120 @@
+package bench;
+
+import model.Question;
+import service.AnswerLog;
+import service.DifficultyCalibrator;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * AnswerLogBenchmark - Append throughput and allocation of the AnswerLog with a reader tailing it
+ * Threads log a served and an answered record per question into small segments (so the
+ * run crosses many segment rolls) while one reader tails the directory. Reports appends
+ * per second, heap bytes allocated per append, how far the tail fell behind, and checks
+ * that the reader saw every record. The logged answers are then fed to DifficultyCalibrator.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.AnswerLogBenchmark [threads] [answersPerThread] [recordsPerSegment]
+ */
+public class AnswerLogBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(2, Runtime.getRuntime().availableProcessors());
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int recordsPerSegment = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 18;
+
+        Path dir = Files.createTempDirectory("answer-log-bench");
+        List<Question> questions = QuestionGenerator.generate(2_000);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        try {
+            AnswerLog log = new AnswerLog(dir, null, recordsPerSegment, 1000, 0);
+            long records = 2L * threads * perThread;
+            System.out.printf("%d threads x %d answers (%d records), %d records per segment%n%n", threads, perThread,
+                records, recordsPerSegment);
+
+            // Tail the log while it is written, tracking the largest backlog seen
+            AtomicBoolean writing = new AtomicBoolean(true);
+            long[] tail = new long[2]; // records read, max lag
+            Thread reader = new Thread(() -> {
+                AnswerLog.Reader r = new AnswerLog.Reader(dir);
+                try {
+                    while (true) {
+                        boolean done = !writing.get();
+                        int n = r.poll(record -> { }, 4096);
+                        tail[1] = Math.max(tail[1], log.getAppendedCount() - r.getReadCount());
+                        if (n == 0) {
+                            if (done) {
+                                break;
+                            }
+                            Thread.onSpinWait();
+                        }
+                    }
+                    tail[0] = r.getReadCount();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }, "tail");
+            reader.start();
+
+            long[] allocated = new long[threads];
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                int slot = t;
+                new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long session = slot + 1;
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long before = mx.getCurrentThreadAllocatedBytes();
+                    for (int i = 0; i < perThread; i++) {
+                        Question question = questions.get(random.nextInt(questions.size()));
+                        int option = 1 + random.nextInt(4);
+                        log.served(session, question);
+                        log.answered(session, question, option, question.isCorrect(option), 12_000_000L);
+                        if (i % 50 == 49) {
+                            session += threads; // a new quiz every 50 questions
+                        }
+                    }
+                    allocated[slot] = mx.getCurrentThreadAllocatedBytes() - before;
+                    done.countDown();
+                }).start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            done.await();
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            writing.set(false);
+            reader.join();
+            log.close();
+
+            long totalAllocated = 0;
+            for (long bytes : allocated) {
+                totalAllocated += bytes;
+            }
+            System.out.printf("appends/s:          %.0f%n", records / seconds);
+            System.out.printf("bytes/append:       %.3f (%d bytes over all appends)%n",
+                (double) totalAllocated / records, totalAllocated);
+            System.out.printf("tail read:          %d of %d records, max lag %d%n", tail[0], records, tail[1]);
+            System.out.println(log.getStatsSummary());
+
+            DifficultyCalibrator.Result result = new DifficultyCalibrator().fit(AnswerLog.answers(dir, null));
+            System.out.println("\n" + result.getStatsSummary());
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
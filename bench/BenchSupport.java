@@ -0,0 +1,48 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * BenchSupport - Small helpers shared by the benchmark programs
+ * Reads per-thread allocation counters and formats results
+ */
+public class BenchSupport {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private BenchSupport() {
+    }
+
+    /**
+     * Bytes allocated so far by the current thread
+     */
+    public static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Heap in use after a best-effort full collection
+     */
+    public static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * Format a byte count as a human readable string
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
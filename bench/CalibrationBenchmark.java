@@ -0,0 +1,126 @@
+package bench;
+
+import service.AnswerSource;
+import service.DifficultyCalibrator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * CalibrationBenchmark - DifficultyCalibrator throughput and accuracy on a synthetic answer history
+ * Answerers and questions get known abilities and difficulties; answers are drawn from the
+ * 1PL model with a fixed seed, so every pass replays the same history without storing it.
+ * Reports fit time, answers per second, heap in use and how well the fitted difficulties
+ * recover the true ones, then writes the new labels back to a stub questions table.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.CalibrationBenchmark [answers] [answerers] [questions]
+ */
+public class CalibrationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long answers = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int answerers = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int questions = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url", "jdbc:stub:calibrate?latencyMicros=500&questions=" + questions);
+        }
+
+        Random random = new Random(42);
+        double[] ability = new double[answerers];
+        double[] difficulty = new double[questions + 1];
+        for (int i = 0; i < answerers; i++) {
+            ability[i] = random.nextGaussian();
+        }
+        for (int id = 1; id <= questions; id++) {
+            difficulty[id] = 1.5 * random.nextGaussian();
+        }
+        AnswerSource source = sink -> {
+            SplittableRandom draw = new SplittableRandom(7);
+            for (long n = 0; n < answers; n++) {
+                int user = draw.nextInt(answerers);
+                int id = 1 + draw.nextInt(questions);
+                double p = 1.0 / (1.0 + Math.exp(difficulty[id] - ability[user]));
+                sink.answer(user, AnswerSource.questionKey(0, id), draw.nextDouble() < p);
+            }
+        };
+
+        System.out.printf("%d answers from %d answerers on %d questions%n%n", answers, answerers, questions);
+
+        // Replay cost alone, to separate generation from fitting
+        long replayStart = System.nanoTime();
+        long[] count = new long[1];
+        source.forEach((user, question, correct) -> count[0]++);
+        long replayMillis = (System.nanoTime() - replayStart) / 1_000_000;
+
+        DifficultyCalibrator calibrator = new DifficultyCalibrator();
+        DifficultyCalibrator.Result result = calibrator.fit(source);
+        Runtime runtime = Runtime.getRuntime();
+        long heapMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+
+        long streamed = (result.getPasses() + 1) * answers;
+        System.out.println(result.getStatsSummary());
+        System.out.printf("replay only:        %d ms per pass%n", replayMillis);
+        System.out.printf("throughput:         %.1f M answers/s over %d passes%n",
+            streamed / (result.getElapsedMillis() / 1000.0) / 1e6, result.getPasses() + 1);
+        System.out.printf("heap in use:        %d MB%n", heapMb);
+
+        double[] fitted = new double[questions];
+        double[] truth = new double[questions];
+        for (int id = 1; id <= questions; id++) {
+            fitted[id - 1] = result.getDifficulty(AnswerSource.questionKey(0, id));
+            truth[id - 1] = difficulty[id];
+        }
+        System.out.printf("difficulty r:       %.4f (fitted vs true)%n", correlation(fitted, truth));
+
+        Map<Long, Integer> labels = DifficultyCalibrator.loadLabels();
+        Map<Long, Integer> changes = result.relabel(labels);
+        long tripsBefore = StubJdbcDriver.getRoundTrips();
+        long rowsBefore = StubJdbcDriver.getRowsWritten();
+        int updated = DifficultyCalibrator.writeBack(changes);
+        System.out.printf("%nrelabel: %d of %d questions change level%n", changes.size(), labels.size());
+        System.out.printf("write-back: %d rows in %d round trips%n", StubJdbcDriver.getRowsWritten() - rowsBefore,
+            StubJdbcDriver.getRoundTrips() - tripsBefore);
+
+        // Expected level: the true-difficulty rank cut at the current level shares
+        int[] perLevel = new int[4];
+        labels.values().forEach(level -> perLevel[level]++);
+        double[] sorted = truth.clone();
+        Arrays.sort(sorted);
+        int agree = 0;
+        for (int id = 1; id <= questions; id++) {
+            long key = AnswerSource.questionKey(0, id);
+            int rank = Arrays.binarySearch(sorted, difficulty[id]);
+            int expected = rank < perLevel[1] ? 1 : rank < perLevel[1] + perLevel[2] ? 2 : 3;
+            if (changes.getOrDefault(key, labels.get(key)) == expected) {
+                agree++;
+            }
+        }
+        System.out.printf("level agreement:    %.1f%% with levels cut from true difficulty (%d updated)%n",
+            100.0 * agree / questions, updated);
+    }
+
+    private static double correlation(double[] x, double[] y) {
+        double mx = 0;
+        double my = 0;
+        for (int i = 0; i < x.length; i++) {
+            mx += x[i];
+            my += y[i];
+        }
+        mx /= x.length;
+        my /= y.length;
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int i = 0; i < x.length; i++) {
+            sxy += (x[i] - mx) * (y[i] - my);
+            sxx += (x[i] - mx) * (x[i] - mx);
+            syy += (y[i] - my) * (y[i] - my);
+        }
+        return sxy / Math.sqrt(sxx * syy);
+    }
+}
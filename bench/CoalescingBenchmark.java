@@ -0,0 +1,102 @@
+package bench;
+
+import db.DatabaseConnection;
+import service.QuestionBank;
+import service.QuestionLoadCoalescer;
+import service.QuestionLoader;
+import service.QuizEngine;
+import service.QuizSession;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CoalescingBenchmark - Exam-open burst of identical topic selections with and without coalescing
+ * Many students start a quiz at once, picking one of a few topic sets (in varying order).
+ * The bank is disabled, so every start reads the database: once per student when each
+ * runs its own query, once per distinct in-flight topic set when loads are coalesced.
+ * Runs offline against the stub driver unless -Dquiz.db.url points at a real database.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.CoalescingBenchmark [students] [threads] [latencyMicros]
+ */
+public class CoalescingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int latencyMicros = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url", "jdbc:stub:coalesce?latencyMicros=" + latencyMicros + "&questions=50000");
+        }
+
+        List<List<String>> selections = new ArrayList<>();
+        selections.add(Arrays.asList(QuestionGenerator.TOPICS[0], QuestionGenerator.TOPICS[1]));
+        selections.add(Arrays.asList(QuestionGenerator.TOPICS[1], QuestionGenerator.TOPICS[0]));
+        selections.add(Collections.singletonList(QuestionGenerator.TOPICS[2]));
+        selections.add(Arrays.asList(QuestionGenerator.TOPICS[3], QuestionGenerator.TOPICS[4], QuestionGenerator.TOPICS[5]));
+
+        QuestionBank disabled = new QuestionBank(0);
+        QuizEngine engine = new QuizEngine(disabled, QuestionLoader.DEFAULT_PER_BUCKET);
+        QuestionLoader loader = new QuestionLoader(QuestionLoader.DEFAULT_PER_BUCKET);
+        DatabaseConnection.testConnection();
+
+        System.out.printf("%n%d students, %d threads, %d topic sets, %d us per round trip%n%n",
+            students, threads, selections.size(), latencyMicros);
+        System.out.printf("%-12s %10s %12s %12s%n", "mode", "wall ms", "round trips", "queries run");
+
+        for (int round = 0; round < 2; round++) {
+            burst("independent", students, threads, selections, topics -> {
+                try (Connection connection = DatabaseConnection.getReadConnection()) {
+                    loader.loadSample(connection, topics);
+                }
+            }, null);
+            burst("coalesced", students, threads, selections,
+                topics -> engine.loadQuestions(new QuizSession("student", topics)), engine.getLoadCoalescer());
+        }
+        System.out.println("\n" + engine.getLoadCoalescer().getStatsSummary());
+        DatabaseConnection.closeConnection();
+    }
+
+    private static void burst(String mode, int students, int threads, List<List<String>> selections,
+                              Start start, QuestionLoadCoalescer loads) throws Exception {
+        long executedBefore = loads != null ? loads.getExecutedCount() : 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            List<String> topics = selections.get(i % selections.size());
+            futures.add(pool.submit(() -> {
+                go.await();
+                start.run(topics);
+                return null;
+            }));
+        }
+
+        long tripsBefore = StubJdbcDriver.getRoundTrips();
+        long begin = System.nanoTime();
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long wallNanos = System.nanoTime() - begin;
+        pool.shutdown();
+
+        long queries = loads != null ? loads.getExecutedCount() - executedBefore : students;
+        System.out.printf("%-12s %10.1f %12d %12d%n", mode, wallNanos / 1e6,
+            StubJdbcDriver.getRoundTrips() - tripsBefore, queries);
+    }
+
+    private interface Start {
+        void run(List<String> topics) throws Exception;
+    }
+}
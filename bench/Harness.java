@@ -0,0 +1,123 @@
+package bench;
+
+import java.util.Arrays;
+
+/**
+ * Harness - Minimal micro-benchmark runner used by the bench programs
+ * Measures throughput, per-operation latency percentiles and bytes allocated
+ * per operation (the same figure JMH's GC profiler reports as gc.alloc.rate.norm)
+ *
+ * Each sample times a batch of operations; batching keeps System.nanoTime()
+ * overhead out of sub-microsecond operations.
+ */
+public class Harness {
+
+    /**
+     * Operation under test; the return value is consumed so the JIT cannot drop the work
+     */
+    public interface Op {
+        long run() throws Exception;
+    }
+
+    /**
+     * Untimed hook run before every sample (e.g. to refill a drained pool)
+     */
+    public interface Setup {
+        void run() throws Exception;
+    }
+
+    private static volatile long sink;
+
+    private final int warmupSamples;
+    private final int samples;
+
+    public Harness(int warmupSamples, int samples) {
+        this.warmupSamples = warmupSamples;
+        this.samples = samples;
+    }
+
+    public Result run(String name, int batch, Op op) throws Exception {
+        return run(name, batch, null, op);
+    }
+
+    public Result run(String name, int batch, Setup setup, Op op) throws Exception {
+        for (int i = 0; i < warmupSamples; i++) {
+            sample(batch, setup, op);
+        }
+
+        long[] nanosPerOp = new long[samples];
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < samples; i++) {
+            if (setup != null) {
+                setup.run();
+            }
+            long bytesBefore = BenchSupport.allocatedBytes();
+            long elapsed = sample(batch, null, op);
+            totalBytes += BenchSupport.allocatedBytes() - bytesBefore;
+            totalNanos += elapsed;
+            nanosPerOp[i] = elapsed / batch;
+        }
+
+        Arrays.sort(nanosPerOp);
+        long ops = (long) samples * batch;
+        return new Result(name, ops * 1_000_000_000.0 / totalNanos,
+            percentile(nanosPerOp, 0.50), percentile(nanosPerOp, 0.99), percentile(nanosPerOp, 0.999),
+            (double) totalBytes / ops);
+    }
+
+    private static long sample(int batch, Setup setup, Op op) throws Exception {
+        if (setup != null) {
+            setup.run();
+        }
+        long acc = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < batch; i++) {
+            acc += op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += acc;
+        return elapsed;
+    }
+
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public static void printHeader() {
+        System.out.printf("%-38s %14s %10s %10s %10s %12s%n",
+            "benchmark", "ops/s", "p50 ns", "p99 ns", "p99.9 ns", "B/op");
+        System.out.println("-".repeat(98));
+    }
+
+    /**
+     * Result - Summary of one benchmark run
+     */
+    public static class Result {
+
+        private final String name;
+        private final double opsPerSecond;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final double bytesPerOp;
+
+        Result(String name, double opsPerSecond, long p50, long p99, long p999, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public void print() {
+            System.out.printf("%-38s %14.0f %10d %10d %10d %12.1f%n",
+                name, opsPerSecond, p50, p99, p999, bytesPerOp);
+        }
+    }
+}
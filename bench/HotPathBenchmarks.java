@@ -0,0 +1,184 @@
+package bench;
+
+import model.Question;
+import model.QuestionStore;
+import model.QuizResult;
+import service.Leaderboard;
+import service.QuestionBank;
+import service.QuestionIndex;
+import service.QuestionLoader;
+import service.QuizEngine;
+import service.QuizSession;
+import service.ResultWriter;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HotPathBenchmarks - Throughput, latency percentiles and allocation for the quiz hot paths
+ *   - question selection (QuestionIndex.next) at 1k / 100k / 1M questions
+ *   - per-session view creation from the shared QuestionBank (loadQuestions)
+ *   - adaptive difficulty update (QuizEngine.processAnswer)
+ *   - Question construction from a ResultSet row (QuestionLoader.mapRow)
+ *   - result persistence through ResultWriter into the stub JDBC driver
+ *   - leaderboard updates, top-N reads and rank lookups
+ *
+ * Run: java -Xmx4g -cp .:lib/mysql-connector.jar bench.HotPathBenchmarks
+ */
+public class HotPathBenchmarks {
+
+    private static final int[] POOL_SIZES = {1_000, 100_000, 1_000_000};
+
+    public static void main(String[] args) throws Exception {
+        // Persistence runs offline against the stub driver (set before DatabaseConnection loads)
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url", "jdbc:stub:bench?latencyMicros=200");
+        }
+
+        Harness harness = new Harness(200, 2_000);
+        Harness.printHeader();
+
+        benchSelection(harness);
+        benchSessionView(harness);
+        benchProcessAnswer(harness);
+        benchMapRow(harness);
+        benchPersistence(harness);
+        benchLeaderboard(harness);
+    }
+
+    private static void benchSelection(Harness harness) throws Exception {
+        for (int size : POOL_SIZES) {
+            QuestionStore bank = QuestionStore.of(QuestionGenerator.generate(size));
+            int batch = 100;
+            QuestionIndex[] index = {new QuestionIndex(bank, null)};
+            int[] difficulty = {1};
+
+            harness.run("select/QuestionIndex.next n=" + size, batch,
+                () -> {
+                    if (index[0].size() < batch) {
+                        index[0] = new QuestionIndex(bank, null);
+                    }
+                },
+                () -> {
+                    difficulty[0] = difficulty[0] % 3 + 1;
+                    return index[0].next(difficulty[0]).getId();
+                }).print();
+        }
+    }
+
+    private static void benchSessionView(Harness harness) throws Exception {
+        QuestionBank bank = new QuestionBank(QuestionBank.DEFAULT_TTL_MILLIS);
+        bank.preload(QuestionGenerator.generate(100_000));
+        List<String> topics = Arrays.asList(QuestionGenerator.TOPICS).subList(0, 3);
+
+        harness.run("load/QuestionBank.newSessionView", 10,
+            () -> bank.newSessionView(topics, QuestionLoader.DEFAULT_PER_BUCKET, null).size()).print();
+    }
+
+    private static void benchProcessAnswer(Harness harness) throws Exception {
+        QuizEngine engine = new QuizEngine(new QuestionBank(QuestionBank.DEFAULT_TTL_MILLIS), 25);
+        QuizSession session = new QuizSession("bench", new ArrayList<>());
+        // Pattern exercises level-ups and level-downs
+        boolean[] pattern = {true, true, true, true, false, false, true, false, false, true};
+        int[] i = {0};
+
+        harness.run("answer/QuizEngine.processAnswer", 100,
+            () -> engine.processAnswer(session, pattern[i[0]++ % pattern.length])).print();
+    }
+
+    private static void benchMapRow(Harness harness) throws Exception {
+        ResultSet row = rowOf(QuestionGenerator.generate(1).get(0));
+
+        // Baseline reads the same nine columns so the difference is construction cost
+        harness.run("row/read 9 columns (baseline)", 100, () -> {
+            long h = row.getInt("id") + row.getInt("correct_option") + row.getInt("difficulty");
+            h += row.getString("question").length() + row.getString("option1").length()
+                + row.getString("option2").length() + row.getString("option3").length()
+                + row.getString("option4").length() + row.getString("topic").length();
+            return h;
+        }).print();
+        harness.run("row/QuestionLoader.mapRow", 100,
+            () -> QuestionLoader.mapRow(row).getId()).print();
+    }
+
+    private static void benchPersistence(Harness harness) throws Exception {
+        File spill = File.createTempFile("bench-spill", ".dat");
+        spill.delete();
+        ResultWriter writer = new ResultWriter(ResultWriter.QUEUE_CAPACITY, spill);
+        QuizResult result = new QuizResult("bench", 120, "Java, Python", 9, 3, 3);
+
+        long start = System.nanoTime();
+        harness.run("persist/ResultWriter.submit", 20, () -> writer.submit(result) ? 1 : 0).print();
+        writer.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%npersist end-to-end: %d rows in %.2f s (%.0f rows/s), %d batches, %d round trips%n",
+            writer.getWrittenCount(), seconds, writer.getWrittenCount() / seconds,
+            writer.getBatchCount(), StubJdbcDriver.getRoundTrips());
+    }
+
+    private static void benchLeaderboard(Harness harness) throws Exception {
+        Leaderboard leaderboard = new Leaderboard(Leaderboard.DEFAULT_SIZE);
+        String[] topics = {"Java", "Python", "Java, Databases", "All Topics"};
+        int users = 100_000;
+        for (int i = 0; i < users; i++) {
+            leaderboard.record(new QuizResult("user" + i, (i * 7919) % 5000, topics[i % topics.length], 10, 5, 3));
+        }
+        int[] i = {0};
+
+        System.out.println();
+        harness.run("leaderboard/record", 100, () -> {
+            int n = i[0]++;
+            leaderboard.record(new QuizResult("user" + (n % users), n % 6000, topics[n % topics.length], 10, 5, 3));
+            return n;
+        }).print();
+        harness.run("leaderboard/getTop global n=10", 100,
+            () -> leaderboard.getTop(Leaderboard.GLOBAL, 10).size()).print();
+        harness.run("leaderboard/getTop Java n=100", 10,
+            () -> leaderboard.getTop("Java", 100).size()).print();
+        List<Leaderboard.Entry> top = leaderboard.getTop(Leaderboard.GLOBAL, Leaderboard.DEFAULT_SIZE);
+        String last = top.get(top.size() - 1).getUsername();
+        harness.run("leaderboard/getRank (rank K)", 10,
+            () -> leaderboard.getRank(Leaderboard.GLOBAL, last)).print();
+        harness.run("leaderboard/getRank (unranked)", 100,
+            () -> leaderboard.getRank(Leaderboard.GLOBAL, "nobody")).print();
+    }
+
+    /**
+     * Single-row ResultSet returning the question's columns by label
+     */
+    private static ResultSet rowOf(Question q) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String column = args != null && args.length > 0 ? String.valueOf(args[0]) : "";
+            switch (method.getName()) {
+                case "getInt":
+                    switch (column) {
+                        case "id": return q.getId();
+                        case "correct_option": return q.getCorrectOption();
+                        case "difficulty": return q.getDifficulty();
+                        default: return 0;
+                    }
+                case "getString":
+                    switch (column) {
+                        case "question": return q.getQuestion();
+                        case "option1": return q.getOption1();
+                        case "option2": return q.getOption2();
+                        case "option3": return q.getOption3();
+                        case "option4": return q.getOption4();
+                        case "topic": return q.getTopic();
+                        default: return null;
+                    }
+                default:
+                    return StubJdbcDriver.defaultValue(method.getReturnType());
+            }
+        };
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, handler);
+    }
+}
@@ -0,0 +1,109 @@
+package bench;
+
+import model.Question;
+import service.QuestionImporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * ImportBenchmark - Rows per second of the bulk question importer
+ * Writes a generated CSV and JSON Lines file (with some duplicate and invalid
+ * rows mixed in) and imports each with a serial and a parallel configuration.
+ * Runs offline against the stub driver unless -Dquiz.db.url points at a real database.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.ImportBenchmark [rows] [latencyMicros]
+ */
+public class ImportBenchmark {
+
+    private static final int DUPLICATE_EVERY = 50;
+    private static final int INVALID_EVERY = 200;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int latencyMicros = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url", "jdbc:stub:import?latencyMicros=" + latencyMicros);
+        }
+
+        List<Question> questions = QuestionGenerator.generate(rows);
+        Path csv = Files.createTempFile("questions", ".csv");
+        Path jsonl = Files.createTempFile("questions", ".jsonl");
+        writeCsv(csv, questions);
+        writeJsonLines(jsonl, questions);
+        System.out.printf("Source: %s%nFiles: %d records each (CSV %s, JSONL %s)%n%n",
+            System.getProperty("quiz.db.url"), rows,
+            BenchSupport.formatBytes(Files.size(csv)), BenchSupport.formatBytes(Files.size(jsonl)));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        run("csv   serial", new QuestionImporter(1, 1, 50), csv);
+        run("csv   parallel", new QuestionImporter(cores, QuestionImporter.DEFAULT_WRITERS,
+            QuestionImporter.DEFAULT_BATCH_SIZE), csv);
+        run("jsonl parallel", new QuestionImporter(cores, QuestionImporter.DEFAULT_WRITERS,
+            QuestionImporter.DEFAULT_BATCH_SIZE), jsonl);
+
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(jsonl);
+    }
+
+    private static void run(String label, QuestionImporter importer, Path file) throws Exception {
+        long rowsBefore = StubJdbcDriver.getRowsWritten();
+        long tripsBefore = StubJdbcDriver.getRoundTrips();
+        QuestionImporter.Report report = importer.importFile(file);
+        System.out.printf("%-15s : %s, %d rows written in %d round trips%n", label, report,
+            StubJdbcDriver.getRowsWritten() - rowsBefore, StubJdbcDriver.getRoundTrips() - tripsBefore);
+    }
+
+    private static void writeCsv(Path file, List<Question> questions) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("question,option1,option2,option3,option4,correct_option,difficulty,topic\n");
+            for (int i = 0; i < questions.size(); i++) {
+                Question q = sample(questions, i);
+                out.write(csv(q.getQuestion()) + "," + csv(q.getOption1()) + "," + csv(q.getOption2()) + ","
+                    + csv(q.getOption3()) + "," + csv(q.getOption4()) + "," + correctOption(q, i) + ","
+                    + q.getDifficulty() + "," + csv(q.getTopic()) + "\n");
+            }
+        }
+    }
+
+    private static void writeJsonLines(Path file, List<Question> questions) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < questions.size(); i++) {
+                Question q = sample(questions, i);
+                out.write("{\"question\": " + json(q.getQuestion()) + ", \"option1\": " + json(q.getOption1())
+                    + ", \"option2\": " + json(q.getOption2()) + ", \"option3\": " + json(q.getOption3())
+                    + ", \"option4\": " + json(q.getOption4()) + ", \"correct_option\": " + correctOption(q, i)
+                    + ", \"difficulty\": " + q.getDifficulty() + ", \"topic\": " + json(q.getTopic()) + "}\n");
+            }
+        }
+    }
+
+    /**
+     * Every DUPLICATE_EVERY-th record repeats an earlier question
+     */
+    private static Question sample(List<Question> questions, int i) {
+        return i > 0 && i % DUPLICATE_EVERY == 0 ? questions.get(i / 2) : questions.get(i);
+    }
+
+    /**
+     * Every INVALID_EVERY-th record has an out-of-range correct option
+     */
+    private static int correctOption(Question q, int i) {
+        return i % INVALID_EVERY == INVALID_EVERY - 1 ? 9 : q.getCorrectOption();
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,96 @@
+package bench;
+
+import service.QuestionBank;
+import service.QuestionBodyCache;
+import service.QuestionLoader;
+import service.QuizEngine;
+import service.QuizSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * LazyLoadBenchmark - Bytes transferred and heap held by the eager question bank
+ * (every row with its texts) versus the header-only bank with on-demand bodies
+ *
+ * Each mode loads a fresh QuestionBank and plays the same number of sessions,
+ * answering a fixed number of questions each. Runs offline against the stub
+ * driver, which counts the column bytes read back, unless -Dquiz.db.url points
+ * at a real database (then only heap and round trips are meaningful).
+ *
+ * Run: java -Xmx2g -cp .:lib/mysql-connector.jar bench.LazyLoadBenchmark
+ *          [questions] [sessions] [questionsPerSession] [latencyMicros]
+ */
+public class LazyLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int perSession = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int latencyMicros = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url",
+                "jdbc:stub:lazy?latencyMicros=" + latencyMicros + "&questions=" + questions);
+        }
+
+        System.out.println("Source: " + System.getProperty("quiz.db.url"));
+        System.out.println(sessions + " sessions x " + perSession + " questions, body batch "
+            + QuestionBodyCache.BATCH_SIZE + ", body cache " + QuestionBodyCache.DEFAULT_CAPACITY + "\n");
+        System.out.printf("%-6s %10s %12s %12s %12s %12s %12s%n",
+            "mode", "load ms", "play ms", "transferred", "round trips", "bank heap", "measured");
+
+        run("eager", false, sessions, perSession);
+        run("lazy", true, sessions, perSession);
+    }
+
+    private static void run(String mode, boolean lazy, int count, int perSession) throws Exception {
+        long heapBefore = BenchSupport.usedHeap();
+        long bytesBefore = StubJdbcDriver.getBytesRead();
+        long tripsBefore = StubJdbcDriver.getRoundTrips();
+
+        QuestionBank bank = new QuestionBank(QuestionBank.DEFAULT_TTL_MILLIS);
+        bank.setLazyBodies(lazy);
+        QuizEngine engine = new QuizEngine(bank, QuestionLoader.DEFAULT_PER_BUCKET);
+
+        long start = System.nanoTime();
+        bank.getTopics();
+        long loadNanos = System.nanoTime() - start;
+
+        Random random = new Random(42);
+        List<QuizSession> sessions = new ArrayList<>(count);
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            List<String> topics = new ArrayList<>();
+            topics.add(QuestionGenerator.TOPICS[i % QuestionGenerator.TOPICS.length]);
+            QuizSession session = engine.startSession("user" + i, topics);
+            for (int j = 0; j < perSession; j++) {
+                if (engine.nextQuestion(session) == null) {
+                    throw new IllegalStateException(mode + " session ran out of questions");
+                }
+                engine.processAnswer(session, random.nextInt(3) > 0);
+            }
+            sessions.add(session);
+        }
+        long playNanos = System.nanoTime() - start;
+
+        long transferred = StubJdbcDriver.getBytesRead() - bytesBefore;
+        long trips = StubJdbcDriver.getRoundTrips() - tripsBefore;
+        long bankHeap = bank.getEstimatedBytes() + bank.getBodyCache().getEstimatedBytes();
+        long measured = BenchSupport.usedHeap() - heapBefore;
+
+        System.out.printf("%-6s %10.1f %12.1f %12s %12d %12s %12s%n", mode, loadNanos / 1e6, playNanos / 1e6,
+            BenchSupport.formatBytes(transferred), trips, BenchSupport.formatBytes(bankHeap),
+            BenchSupport.formatBytes(measured));
+        if (lazy) {
+            System.out.println("       " + bank.getBodyCache().getStatsSummary());
+        }
+        // Keep bank and sessions reachable until measured
+        if (sessions.size() != count || bank.getQuestionCount() == 0) {
+            throw new IllegalStateException("unexpected state");
+        }
+    }
+}
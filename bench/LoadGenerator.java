@@ -0,0 +1,307 @@
+package bench;
+
+import db.ConnectionPool;
+import db.DatabaseConnection;
+import metrics.LatencyHistogram;
+import model.Question;
+import service.QuestionBank;
+import service.QuizEngine;
+import service.QuizSession;
+import service.ResultWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadGenerator - Simulates many concurrent test-takers for exam-day capacity planning
+ * Each simulated user drives QuizEngine through load → (next question → answer)* → save
+ * with randomized think times, a skewed topic mix and an accuracy profile.
+ * Users are state machines on a small scheduler pool, so tens of thousands can run
+ * without one thread per user.
+ *
+ * Runs fully offline by default: questions come from a generated in-memory bank and
+ * results are written through the connection pool into the stub JDBC driver.
+ * Pass -Dquiz.db.url=... and bank=0 to run against a real database instead.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.LoadGenerator users=2000 questions=15
+ *        think-ms=800 ramp-s=10 bank=100000 db-latency-us=500 threads=8
+ */
+public class LoadGenerator {
+
+    // Accuracy profiles: share of users and base probability of a correct answer
+    private static final double[] PROFILE_SHARE = {0.3, 0.5, 0.2};
+    private static final double[] PROFILE_ACCURACY = {0.45, 0.65, 0.85};
+    private static final double ALL_TOPICS_SHARE = 0.2;
+
+    private final int users;
+    private final int questionsPerUser;
+    private final long thinkMillis;
+    private final long rampMillis;
+    private final QuizEngine engine;
+    private final ScheduledExecutorService scheduler;
+    private final CountDownLatch finished;
+
+    // Per-stage latency and failures
+    private final LatencyHistogram loadLatency = new LatencyHistogram("load");
+    private final LatencyHistogram nextLatency = new LatencyHistogram("next");
+    private final LatencyHistogram answerLatency = new LatencyHistogram("answer");
+    private final LatencyHistogram saveLatency = new LatencyHistogram("save");
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong correctAnswers = new AtomicLong();
+
+    public LoadGenerator(QuizEngine engine, int users, int questionsPerUser, long thinkMillis,
+                         long rampMillis, int threads) {
+        this.engine = engine;
+        this.users = users;
+        this.questionsPerUser = questionsPerUser;
+        this.thinkMillis = thinkMillis;
+        this.rampMillis = rampMillis;
+        this.scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "load-user");
+            t.setDaemon(true);
+            return t;
+        });
+        this.finished = new CountDownLatch(users);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int questions = Integer.parseInt(options.getOrDefault("questions", "15"));
+        long thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "500"));
+        long rampMillis = Long.parseLong(options.getOrDefault("ramp-s", "10")) * 1_000;
+        int bankSize = Integer.parseInt(options.getOrDefault("bank", "100000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors() * 2)));
+        String dbLatency = options.getOrDefault("db-latency-us", "500");
+
+        // Offline by default (must be set before DatabaseConnection is first used)
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url", "jdbc:stub:load?latencyMicros=" + dbLatency);
+        }
+
+        if (bankSize > 0) {
+            QuestionBank.getInstance().preload(QuestionGenerator.generate(bankSize));
+        }
+
+        System.out.printf("Simulating %d users x %d questions, think ~%d ms, ramp %d s, bank %s%n%n",
+            users, questions, thinkMillis, rampMillis / 1_000,
+            bankSize > 0 ? bankSize + " generated" : "from " + System.getProperty("quiz.db.url"));
+
+        LoadGenerator generator = new LoadGenerator(QuizEngine.getInstance(), users, questions,
+            thinkMillis, rampMillis, threads);
+        generator.run();
+    }
+
+    /**
+     * Start all users, wait for them to finish, then print the report
+     */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        List<String> topics = Arrays.asList(QuestionGenerator.TOPICS);
+
+        for (int i = 0; i < users; i++) {
+            long delay = users > 1 ? rampMillis * i / (users - 1) : 0;
+            scheduler.schedule(new SimulatedUser("user" + i, pickTopics(topics), pickAccuracy()),
+                delay, TimeUnit.MILLISECONDS);
+        }
+
+        while (!finished.await(5, TimeUnit.SECONDS)) {
+            System.out.printf("… %d/%d users finished, %d answers, pool %s%n",
+                users - finished.getCount(), users, answerLatency.getCount(),
+                DatabaseConnection.getDataSource().getStatsSummary());
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        scheduler.shutdown();
+
+        // Drain queued results so the write path is part of the measurement
+        long drainStart = System.nanoTime();
+        ResultWriter writer = ResultWriter.getInstance();
+        String writerStats = writer.getStatsSummary();
+        ResultWriter.shutdownInstance();
+        double drainSeconds = (System.nanoTime() - drainStart) / 1e9;
+
+        report(elapsedSeconds, drainSeconds, writerStats);
+    }
+
+    private void report(double elapsedSeconds, double drainSeconds, String writerStats) {
+        System.out.printf("%nCompleted in %.1f s (+%.2f s to drain result writes)%n%n", elapsedSeconds, drainSeconds);
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n",
+            "stage", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyHistogram h : new LatencyHistogram[] {loadLatency, nextLatency, answerLatency, saveLatency}) {
+            System.out.printf("%-8s %10d %10.0f %10.3f %10.3f %10.3f %10.3f%n",
+                h.getName(), h.getCount(), h.getCount() / elapsedSeconds,
+                h.getPercentileNanos(50) / 1e6, h.getPercentileNanos(99) / 1e6,
+                h.getPercentileNanos(99.9) / 1e6, h.getMaxNanos() / 1e6);
+        }
+
+        ConnectionPool pool = DatabaseConnection.getDataSource();
+        LatencyHistogram wait = pool.getBorrowWaitHistogram();
+        System.out.printf("%nDB connection wait: borrows=%d p50=%.3f ms p99=%.3f ms p99.9=%.3f ms max=%.3f ms timeouts=%d%n",
+            wait.getCount(), wait.getPercentileNanos(50) / 1e6, wait.getPercentileNanos(99) / 1e6,
+            wait.getPercentileNanos(99.9) / 1e6, wait.getMaxNanos() / 1e6, pool.getBorrowTimeouts());
+        System.out.println("Result writer: " + writerStats);
+        System.out.printf("Accuracy: %.1f%%, failures: %d%n",
+            answerLatency.getCount() == 0 ? 0 : correctAnswers.get() * 100.0 / answerLatency.getCount(),
+            failures.get());
+    }
+
+    /**
+     * Topic mix: some users take every topic, the rest pick 1-3 topics with a
+     * Zipf-like skew towards the first topics in the list
+     */
+    private static List<String> pickTopics(List<String> topics) {
+        Random random = ThreadLocalRandom.current();
+        if (random.nextDouble() < ALL_TOPICS_SHARE) {
+            return new ArrayList<>();
+        }
+        double norm = 0;
+        for (int i = 0; i < topics.size(); i++) {
+            norm += 1.0 / (i + 1);
+        }
+        List<String> picked = new ArrayList<>();
+        int wanted = 1 + random.nextInt(3);
+        while (picked.size() < wanted) {
+            double r = random.nextDouble() * norm;
+            for (int i = 0; i < topics.size(); i++) {
+                r -= 1.0 / (i + 1);
+                if (r <= 0) {
+                    if (!picked.contains(topics.get(i))) {
+                        picked.add(topics.get(i));
+                    }
+                    break;
+                }
+            }
+        }
+        return picked;
+    }
+
+    private static double pickAccuracy() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < PROFILE_SHARE.length; i++) {
+            r -= PROFILE_SHARE[i];
+            if (r <= 0) {
+                return PROFILE_ACCURACY[i];
+            }
+        }
+        return PROFILE_ACCURACY[PROFILE_ACCURACY.length - 1];
+    }
+
+    /**
+     * Log-normal think time around the configured mean
+     */
+    private long thinkTime() {
+        double sigma = 0.5;
+        double factor = Math.exp(sigma * ThreadLocalRandom.current().nextGaussian() - sigma * sigma / 2);
+        return (long) (thinkMillis * factor);
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * SimulatedUser - One test-taker; each run() performs one step and reschedules itself
+     */
+    private final class SimulatedUser implements Runnable {
+
+        private final String username;
+        private final List<String> topics;
+        private final double accuracy;
+        private QuizSession session;
+        private Question pending;
+        private int answered;
+
+        SimulatedUser(String username, List<String> topics, double accuracy) {
+            this.username = username;
+            this.topics = topics;
+            this.accuracy = accuracy;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (session == null) {
+                    long start = System.nanoTime();
+                    session = engine.startSession(username, topics);
+                    loadLatency.recordSince(start);
+                    scheduleNext(thinkTime());
+
+                } else if (pending == null) {
+                    if (answered >= questionsPerUser) {
+                        finish();
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    pending = engine.nextQuestion(session);
+                    nextLatency.recordSince(start);
+                    if (pending == null) {
+                        finish();
+                        return;
+                    }
+                    // Reading and answering the question
+                    scheduleNext(thinkTime());
+
+                } else {
+                    int option = chooseOption(pending);
+                    long start = System.nanoTime();
+                    if (engine.submitAnswer(session, option)) {
+                        correctAnswers.incrementAndGet();
+                    }
+                    answerLatency.recordSince(start);
+                    pending = null;
+                    answered++;
+                    // Short pause reading the feedback
+                    scheduleNext(thinkTime() / 4);
+                }
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Correct with probability based on accuracy, lower for harder questions
+         */
+        private int chooseOption(Question question) {
+            Random random = ThreadLocalRandom.current();
+            double p = accuracy - 0.1 * (question.getDifficulty() - 2);
+            if (random.nextDouble() < p) {
+                return question.getCorrectOption();
+            }
+            int wrong = 1 + random.nextInt(3);
+            return wrong >= question.getCorrectOption() ? wrong + 1 : wrong;
+        }
+
+        private void finish() {
+            long start = System.nanoTime();
+            if (!engine.saveResult(session)) {
+                failures.incrementAndGet();
+            }
+            saveLatency.recordSince(start);
+            finished.countDown();
+        }
+
+        private void scheduleNext(long delayMillis) {
+            scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import model.Question;
+import model.QuestionStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * QuestionGenerator - Builds synthetic question banks for benchmarks and load tests
+ * Questions are spread evenly across topics and difficulty levels
+ */
+public class QuestionGenerator {
+
+    public static final String[] TOPICS = {
+        "Java", "Python", "Databases", "Networking", "Operating Systems",
+        "Data Structures", "Algorithms", "Web Development"
+    };
+
+    private QuestionGenerator() {
+    }
+
+    /**
+     * Generate a bank of the given size with a fixed seed
+     */
+    public static List<Question> generate(int count) {
+        return generate(count, 42L);
+    }
+
+    /**
+     * Generate a bank of the given size
+     */
+    public static List<Question> generate(int count, long seed) {
+        List<Question> questions = new ArrayList<>(count);
+        generate(count, seed, questions::add);
+        return questions;
+    }
+
+    /**
+     * Generate a bank straight into a compact store, without keeping Question objects
+     */
+    public static QuestionStore generateStore(int count, long seed) {
+        QuestionStore.Builder builder = new QuestionStore.Builder(count);
+        generate(count, seed, builder::add);
+        return builder.build();
+    }
+
+    private static void generate(int count, long seed, Consumer<Question> sink) {
+        Random random = new Random(seed);
+
+        for (int i = 1; i <= count; i++) {
+            String topic = TOPICS[random.nextInt(TOPICS.length)];
+            sink.accept(new Question(
+                i,
+                "Sample question #" + i + " about " + topic + "?",
+                "Option A for #" + i,
+                "Option B for #" + i,
+                "Option C for #" + i,
+                "Option D for #" + i,
+                1 + random.nextInt(4),
+                1 + random.nextInt(3),
+                topic
+            ));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import model.Question;
+import service.QuestionIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QuestionIndexBenchmark - Per-call latency and allocation of getNextQuestion
+ * Compares the old linear scan over a List with the difficulty-bucketed QuestionIndex
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.QuestionIndexBenchmark
+ */
+public class QuestionIndexBenchmark {
+
+    private static final int[] BANK_SIZES = {1_000, 100_000, 1_000_000};
+    private static final int INDEX_CALLS = 1_000;
+    private static final int SCAN_CALLS = 100;
+
+    public static void main(String[] args) {
+        System.out.println("bank size | path        | ns/call      | bytes/call");
+        System.out.println("----------+-------------+--------------+-----------");
+
+        for (int size : BANK_SIZES) {
+            List<Question> bank = QuestionGenerator.generate(size);
+
+            // Warm up both paths on a throwaway copy
+            runIndex(bank, INDEX_CALLS);
+            runScan(new ArrayList<>(bank), Math.min(SCAN_CALLS, 10));
+
+            report(size, "index", runIndex(bank, INDEX_CALLS));
+            report(size, "linear scan", runScan(new ArrayList<>(bank), SCAN_CALLS));
+        }
+    }
+
+    /**
+     * @return {nanos per call, bytes per call}
+     */
+    private static double[] runIndex(List<Question> bank, int calls) {
+        QuestionIndex index = new QuestionIndex(bank);
+        int difficulty = 1;
+        long sink = 0;
+
+        long bytesBefore = BenchSupport.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            Question q = index.next(difficulty);
+            sink += q.getId();
+            difficulty = difficulty % 3 + 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = BenchSupport.allocatedBytes() - bytesBefore;
+
+        if (sink == 42) System.out.println();
+        return new double[] {(double) elapsed / calls, (double) bytes / calls};
+    }
+
+    /**
+     * Reproduces the original getNextQuestion: filter, copy, shuffle, remove
+     */
+    private static double[] runScan(List<Question> pool, int calls) {
+        int difficulty = 1;
+        long sink = 0;
+
+        long bytesBefore = BenchSupport.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            List<Question> available = new ArrayList<>();
+            for (Question q : pool) {
+                if (q.getDifficulty() == difficulty) {
+                    available.add(q);
+                }
+            }
+            Collections.shuffle(available);
+            Question selected = available.get(0);
+            pool.remove(selected);
+            sink += selected.getId();
+            difficulty = difficulty % 3 + 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = BenchSupport.allocatedBytes() - bytesBefore;
+
+        if (sink == 42) System.out.println();
+        return new double[] {(double) elapsed / calls, (double) bytes / calls};
+    }
+
+    private static void report(int size, String path, double[] result) {
+        System.out.printf("%9d | %-11s | %12.0f | %10.0f%n", size, path, result[0], result[1]);
+    }
+}
@@ -0,0 +1,100 @@
+package bench;
+
+import model.Question;
+import service.QuestionStats;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * QuestionStatsBenchmark - Answers recorded per second by QuestionStats versus a locked map
+ * Threads answer questions drawn from a small hot set (the exam-day case where every session
+ * sees the same few items), then the pending counts are flushed to the stub database.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.QuestionStatsBenchmark [threads] [answersPerThread] [hotQuestions]
+ */
+public class QuestionStatsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int hot = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url", "jdbc:stub:stats?latencyMicros=500");
+        }
+        List<Question> questions = QuestionGenerator.generate(hot);
+
+        System.out.printf("%d answers per thread over %d hot questions%n%n", perThread, hot);
+        System.out.printf("%-8s %18s %18s%n", "threads", "striped answers/s", "locked answers/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            QuestionStats stats = new QuestionStats(null, 0);
+            double striped = run(threads, perThread, questions,
+                (q, correct, nanos) -> stats.record(q, correct, nanos));
+            LockedStats locked = new LockedStats();
+            double baseline = run(threads, perThread, questions, locked::record);
+            System.out.printf("%-8d %18.0f %18.0f%n", threads, striped, baseline);
+
+            if (threads * 2 > maxThreads) {
+                long rowsBefore = StubJdbcDriver.getRowsWritten();
+                long tripsBefore = StubJdbcDriver.getRoundTrips();
+                int rows = stats.flush();
+                System.out.printf("%nflush: %d questions, %d rows written in %d round trips%n", rows,
+                    StubJdbcDriver.getRowsWritten() - rowsBefore, StubJdbcDriver.getRoundTrips() - tripsBefore);
+                System.out.println(stats.get(questions.get(0)));
+                System.out.println(stats.getStatsSummary());
+            }
+        }
+    }
+
+    private static double run(int threads, int perThread, List<Question> questions, Recorder recorder)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    recorder.record(questions.get(random.nextInt(questions.size())), random.nextBoolean(),
+                        random.nextInt(5_000, 60_000) * 1_000_000L);
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (double) threads * perThread / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private interface Recorder {
+        void record(Question question, boolean correct, long answerNanos);
+    }
+
+    /**
+     * Baseline: one lock around a plain map of counters
+     */
+    private static final class LockedStats {
+
+        private final Map<Integer, long[]> counts = new HashMap<>();
+
+        synchronized void record(Question question, boolean correct, long answerNanos) {
+            long[] c = counts.computeIfAbsent(question.getId(), id -> new long[3]);
+            c[0]++;
+            if (correct) {
+                c[1]++;
+            }
+            c[2] += answerNanos / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package bench;
+
+import model.Question;
+import model.QuestionStore;
+
+import java.util.List;
+
+/**
+ * QuestionStoreBenchmark - Retained heap of a generated bank as Question objects
+ * versus the compact columnar QuestionStore, plus the cost of reading a row back
+ *
+ * Run: java -Xmx4g -cp .:lib/mysql-connector.jar bench.QuestionStoreBenchmark [bankSize]
+ */
+public class QuestionStoreBenchmark {
+
+    private static final int READS = 1_000_000;
+
+    public static void main(String[] args) {
+        int bankSize = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("Bank: " + bankSize + " generated questions\n");
+
+        long base = BenchSupport.usedHeap();
+        List<Question> objects = QuestionGenerator.generate(bankSize, 42L);
+        long objectBytes = BenchSupport.usedHeap() - base;
+        report("Question objects", objectBytes, bankSize);
+        objects = null;
+
+        base = BenchSupport.usedHeap();
+        QuestionStore store = QuestionGenerator.generateStore(bankSize, 42L);
+        long storeBytes = BenchSupport.usedHeap() - base;
+        report("QuestionStore", storeBytes, bankSize);
+        System.out.printf("%-18s : %s estimated by the store itself%n", "",
+            BenchSupport.formatBytes(store.getEstimatedBytes()));
+        System.out.printf("%nReduction: %.1fx%n%n", (double) objectBytes / Math.max(1, storeBytes));
+
+        // Read path: view creation plus decoding what the quiz screen shows
+        long sink = 0;
+        int rows = store.size();
+        for (int i = 0; i < READS / 10; i++) {
+            sink += read(store, (int) ((i * 2654435761L) % rows));
+        }
+        long bytesBefore = BenchSupport.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            sink += read(store, (int) ((i * 2654435761L) % rows));
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = BenchSupport.allocatedBytes() - bytesBefore;
+        System.out.printf("Row view + decode : %.0f ns/row, %.0f bytes/row%n",
+            (double) elapsed / READS, (double) bytes / READS);
+
+        if (sink == 42) System.out.println();
+    }
+
+    private static long read(QuestionStore store, int row) {
+        Question q = store.get(row);
+        return q.getId() + q.getQuestion().length() + q.getOption(q.getCorrectOption()).length()
+            + q.getDifficulty() + q.getTopic().length();
+    }
+
+    private static void report(String label, long bytes, int count) {
+        System.out.printf("%-18s : %s, %d bytes/question%n",
+            label, BenchSupport.formatBytes(bytes), bytes / count);
+    }
+}
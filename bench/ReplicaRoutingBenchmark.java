@@ -0,0 +1,98 @@
+package bench;
+
+import db.DatabaseConnection;
+import db.ReplicaRouter;
+import service.QuestionLoader;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReplicaRoutingBenchmark - Read throughput and routing with read replicas through outages
+ * Concurrent clients run session question loads through DatabaseConnection.getReadConnection()
+ * against a stub primary and two stub replicas. The phases take one replica down, then
+ * both, then bring them back, showing where reads were routed in each phase.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.ReplicaRoutingBenchmark [clients] [phaseMillis] [latencyMicros]
+ */
+public class ReplicaRoutingBenchmark {
+
+    private static final long HEALTH_CHECK_MILLIS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long phaseMillis = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+        int latencyMicros = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        String params = "?latencyMicros=" + latencyMicros + "&questions=2000";
+        System.setProperty("quiz.db.url", "jdbc:stub:primary" + params);
+        System.setProperty("quiz.db.replicas", "jdbc:stub:replica1" + params + ";jdbc:stub:replica2" + params);
+        System.setProperty("quiz.db.replicas.healthCheckMillis", String.valueOf(HEALTH_CHECK_MILLIS));
+
+        ReplicaRouter router = DatabaseConnection.getReplicaRouter();
+        List<String> topics = Collections.singletonList(QuestionGenerator.TOPICS[0]);
+        QuestionLoader loader = new QuestionLoader(QuestionLoader.DEFAULT_PER_BUCKET);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            workers.add(pool.submit(() -> {
+                while (running.get()) {
+                    try (Connection connection = DatabaseConnection.getReadConnection()) {
+                        loader.loadSample(connection, topics);
+                        reads.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        System.out.println(clients + " clients, " + latencyMicros + " us per round trip, health check every "
+            + HEALTH_CHECK_MILLIS + " ms\n");
+        System.out.printf("%-22s %10s %10s %10s %10s %10s%n",
+            "phase", "reads/s", "replica1", "replica2", "primary", "errors");
+        phase("all healthy", phaseMillis, router, reads, errors);
+        StubJdbcDriver.setDown("replica2", true);
+        phase("replica2 down", phaseMillis, router, reads, errors);
+        StubJdbcDriver.setDown("replica1", true);
+        phase("both replicas down", phaseMillis, router, reads, errors);
+        StubJdbcDriver.setDown("replica1", false);
+        StubJdbcDriver.setDown("replica2", false);
+        phase("recovered", phaseMillis, router, reads, errors);
+
+        running.set(false);
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+        System.out.println();
+        DatabaseConnection.closeConnection();
+    }
+
+    private static void phase(String label, long millis, ReplicaRouter router,
+                              AtomicLong reads, AtomicLong errors) throws InterruptedException {
+        List<ReplicaRouter.Replica> replicas = router.getReplicas();
+        long reads0 = reads.get();
+        long errors0 = errors.get();
+        long first0 = replicas.get(0).getReads();
+        long second0 = replicas.get(1).getReads();
+        long primary0 = router.getPrimaryReads();
+        Thread.sleep(millis);
+        System.out.printf("%-22s %10.0f %10d %10d %10d %10d%n", label, (reads.get() - reads0) * 1000.0 / millis,
+            replicas.get(0).getReads() - first0, replicas.get(1).getReads() - second0,
+            router.getPrimaryReads() - primary0, errors.get() - errors0);
+    }
+}
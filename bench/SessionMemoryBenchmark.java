@@ -0,0 +1,55 @@
+package bench;
+
+import service.QuestionBank;
+import service.QuizEngine;
+import service.QuizSession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SessionMemoryBenchmark - Heap cost of one QuizSession over a shared bank
+ * Creates many sessions against a generated in-memory QuestionBank and
+ * reports retained heap per session
+ *
+ * Run: java -Xmx2g -cp .:lib/mysql-connector.jar bench.SessionMemoryBenchmark [sessions] [bankSize]
+ */
+public class SessionMemoryBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int bankSize = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        QuestionBank bank = new QuestionBank(QuestionBank.DEFAULT_TTL_MILLIS);
+        bank.preload(QuestionGenerator.generate(bankSize));
+        QuizEngine engine = new QuizEngine(bank, 25);
+
+        System.out.println("Bank: " + bankSize + " questions, " + sessions + " sessions per scenario\n");
+        measure(engine, sessions, "1 topic", Arrays.asList(QuestionGenerator.TOPICS[0]));
+        measure(engine, sessions, "3 topics", Arrays.asList(QuestionGenerator.TOPICS).subList(0, 3));
+        measure(engine, sessions, "all topics", new ArrayList<>());
+    }
+
+    private static void measure(QuizEngine engine, int count, String label, List<String> topics) throws Exception {
+        List<QuizSession> sessions = new ArrayList<>(count);
+        long before = BenchSupport.usedHeap();
+
+        for (int i = 0; i < count; i++) {
+            QuizSession session = engine.startSession("user" + i, topics);
+            // Play a few answers so counters and cursor are in a realistic state
+            for (int j = 0; j < 5; j++) {
+                engine.nextQuestion(session);
+                engine.processAnswer(session, j % 2 == 0);
+            }
+            sessions.add(session);
+        }
+
+        long after = BenchSupport.usedHeap();
+        long perSession = (after - before) / count;
+        System.out.printf("%-10s : %s total, %d bytes/session (%d questions each)%n",
+            label, BenchSupport.formatBytes(after - before), perSession,
+            sessions.get(0).getRemainingQuestions() + 5);
+        sessions.clear();
+    }
+}
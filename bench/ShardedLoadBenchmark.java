@@ -0,0 +1,117 @@
+package bench;
+
+import db.ShardMap;
+import model.Question;
+import model.QuestionStore;
+import service.QuestionLoader;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * ShardedLoadBenchmark - Question loads from one database versus topic shards queried in parallel
+ * Each shard is an in-process stub database (its own URL and pool) holding the same
+ * generated table; the shard map gives each shard a disjoint slice of the topics,
+ * so the shards together serve exactly the single database's rows.
+ *
+ * Run: java -cp .:lib/mysql-connector.jar bench.ShardedLoadBenchmark [questions] [shards] [latencyMicros]
+ */
+public class ShardedLoadBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int shardCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int latencyMicros = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        StubJdbcDriver.register();
+        String single = "jdbc:stub:single?latencyMicros=" + latencyMicros + "&questions=" + questions;
+        ShardMap shards = new ShardMap(shardProperties(questions, shardCount, latencyMicros), "bench", "", 0, 4);
+        List<String> selected = Arrays.asList(QuestionGenerator.TOPICS).subList(0, shardCount);
+        QuestionLoader loader = new QuestionLoader(QuestionLoader.DEFAULT_PER_BUCKET);
+
+        System.out.println(questions + " questions, " + shardCount + " shards, " + latencyMicros + " us per round trip");
+        System.out.println(shards.getStatsSummary() + "\n");
+        System.out.printf("%-28s %12s %12s %12s%n", "load", "best ms", "rows", "round trips");
+
+        long trips = StubJdbcDriver.getRoundTrips();
+        long best = Long.MAX_VALUE;
+        int rows = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            try (Connection connection = DriverManager.getConnection(single)) {
+                rows = QuestionLoader.loadAll(connection).size();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report("bank, single database", best, rows, trips);
+
+        trips = StubJdbcDriver.getRoundTrips();
+        best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            QuestionStore store = QuestionLoader.loadAll(shards);
+            best = Math.min(best, System.nanoTime() - start);
+            rows = store.size();
+        }
+        report("bank, sharded parallel", best, rows, trips);
+
+        trips = StubJdbcDriver.getRoundTrips();
+        best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            try (Connection connection = DriverManager.getConnection(single)) {
+                rows = loader.loadSample(connection, selected).size();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report("session " + selected.size() + " topics, single", best, rows, trips);
+
+        trips = StubJdbcDriver.getRoundTrips();
+        best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<Question> sample = loader.loadSample(shards, selected);
+            best = Math.min(best, System.nanoTime() - start);
+            rows = sample.size();
+        }
+        report("session " + selected.size() + " topics, sharded", best, rows, trips);
+
+        trips = StubJdbcDriver.getRoundTrips();
+        long start = System.nanoTime();
+        rows = shards.getTopics().size();
+        report("topics from shard map", System.nanoTime() - start, rows, trips);
+
+        shards.close();
+    }
+
+    /**
+     * Round-robin the generator's topics over the shards; every shard is its own stub database
+     */
+    private static Properties shardProperties(int questions, int shardCount, int latencyMicros) {
+        Properties props = new Properties();
+        List<List<String>> topics = new ArrayList<>();
+        for (int s = 0; s < shardCount; s++) {
+            topics.add(new ArrayList<>());
+            props.setProperty("shard.s" + s + ".url",
+                "jdbc:stub:shard" + s + "?latencyMicros=" + latencyMicros + "&questions=" + questions);
+        }
+        for (int t = 0; t < QuestionGenerator.TOPICS.length; t++) {
+            topics.get(t % shardCount).add(QuestionGenerator.TOPICS[t]);
+        }
+        for (int s = 0; s < shardCount; s++) {
+            props.setProperty("shard.s" + s + ".topics", String.join(", ", topics.get(s)));
+        }
+        return props;
+    }
+
+    private static void report(String label, long nanos, int rows, long tripsBefore) {
+        System.out.printf("%-28s %12.1f %12d %12d%n", label, nanos / 1e6, rows,
+            StubJdbcDriver.getRoundTrips() - tripsBefore);
+    }
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import service.QuestionBank;
+import service.QuestionIndex;
+import service.QuestionLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SnapshotStartupBenchmark - Time to a first servable session: JDBC load versus
+ * memory-mapping the binary question snapshot
+ *
+ * Each round builds a fresh QuestionBank and measures load + first session view.
+ * Runs offline against the stub driver (generated questions table, per-round-trip
+ * latency per fetch chunk) unless -Dquiz.db.url points at a real database.
+ *
+ * Run: java -Xmx4g -cp .:lib/mysql-connector.jar bench.SnapshotStartupBenchmark [questions] [latencyMicros]
+ */
+public class SnapshotStartupBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int latencyMicros = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        // Must be set before DatabaseConnection is first used
+        StubJdbcDriver.register();
+        if (System.getProperty("quiz.db.url") == null) {
+            System.setProperty("quiz.db.url",
+                "jdbc:stub:snapshot?latencyMicros=" + latencyMicros + "&questions=" + questions);
+        }
+        Path file = Files.createTempFile("questions", ".snap");
+        file.toFile().deleteOnExit();
+        List<String> topics = Arrays.asList(QuestionGenerator.TOPICS).subList(0, 3);
+
+        System.out.println("Source: " + System.getProperty("quiz.db.url"));
+        System.out.printf("%-10s %6s %12s %12s %12s%n", "path", "round", "load ms", "questions", "heap");
+
+        long jdbcBest = Long.MAX_VALUE;
+        long mappedBest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            // JDBC path; the load also refreshes the snapshot file, which is timed separately
+            QuestionBank jdbc = new QuestionBank(QuestionBank.DEFAULT_TTL_MILLIS);
+            long start = System.nanoTime();
+            QuestionIndex view = jdbc.newSessionView(topics, QuestionLoader.DEFAULT_PER_BUCKET, null);
+            long jdbcNanos = System.nanoTime() - start;
+            report("jdbc", round, jdbcNanos, jdbc, view);
+            jdbcBest = Math.min(jdbcBest, jdbcNanos);
+
+            if (round == 0) {
+                jdbc.setSnapshotFile(file);
+                jdbc.invalidate();
+                start = System.nanoTime();
+                jdbc.getTopics();
+                System.out.printf("%-10s %6s %12.1f %12d %12s%n", "jdbc+write", "", (System.nanoTime() - start) / 1e6,
+                    jdbc.getQuestionCount(), BenchSupport.formatBytes(Files.size(file)) + " file");
+            }
+
+            QuestionBank mapped = new QuestionBank(QuestionBank.DEFAULT_TTL_MILLIS);
+            mapped.setSnapshotFile(file);
+            start = System.nanoTime();
+            view = mapped.newSessionView(topics, QuestionLoader.DEFAULT_PER_BUCKET, null);
+            long mappedNanos = System.nanoTime() - start;
+            report("mmap", round, mappedNanos, mapped, view);
+            mappedBest = Math.min(mappedBest, mappedNanos);
+        }
+
+        System.out.printf("%nBest of %d: jdbc %.1f ms, mmap %.1f ms (%.0fx faster)%n", ROUNDS,
+            jdbcBest / 1e6, mappedBest / 1e6, (double) jdbcBest / Math.max(1, mappedBest));
+        Files.deleteIfExists(Paths.get(file + ".tmp"));
+    }
+
+    private static void report(String path, int round, long nanos, QuestionBank bank, QuestionIndex view) {
+        if (view.isEmpty()) {
+            throw new IllegalStateException(path + " produced an empty session");
+        }
+        System.out.printf("%-10s %6d %12.1f %12d %12s%n", path, round, nanos / 1e6,
+            bank.getQuestionCount(), BenchSupport.formatBytes(bank.getEstimatedBytes()));
+    }
+}
@@ -0,0 +1,377 @@
+package bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * StubJdbcDriver - In-process JDBC driver for offline benchmarks and load tests
+ * Accepts URLs of the form jdbc:stub:name[?latencyMicros=N][&questions=M][&results=R]; every
+ * statement execution (and every fetch-size chunk of a result) waits N microseconds
+ * to stand in for a database round trip.
+ * Writes are counted (every row of a multi-row INSERT) and discarded. With questions=M,
+ * queries on the questions table return M generated rows (honouring WHERE id IN /
+ * topic IN filters); with results=R,
+ * queries on the users table return R generated results (honouring MAX(id) and
+ * keyset ranges with LIMIT). All other queries return empty result sets.
+ * Column values read back are counted as bytes transferred (4 per int, 8 per long,
+ * UTF-8 length per string).
+ *
+ * A database can be taken down with setDown(name, true): new connections to it fail
+ * and existing ones stop validating, like a replica that went away.
+ *
+ * Point the application at it with -Dquiz.db.url=jdbc:stub:quizdb
+ */
+public class StubJdbcDriver implements Driver {
+
+    private static final String PREFIX = "jdbc:stub:";
+    private static final StubJdbcDriver INSTANCE = new StubJdbcDriver();
+    private static boolean registered;
+
+    private static final AtomicLong roundTrips = new AtomicLong();
+    private static final AtomicLong rowsWritten = new AtomicLong();
+    private static final AtomicLong bytesRead = new AtomicLong();
+    private static final Set<String> down = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Register with DriverManager (idempotent)
+     */
+    public static synchronized void register() {
+        if (!registered) {
+            try {
+                DriverManager.registerDriver(INSTANCE);
+                registered = true;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    public static long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public static long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Simulate an outage (or recovery) of the database named in jdbc:stub:name
+     */
+    public static void setDown(String name, boolean isDown) {
+        if (isDown) {
+            down.add(name);
+        } else {
+            down.remove(name);
+        }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        String name = url.substring(PREFIX.length()).split("\\?")[0];
+        if (down.contains(name)) {
+            throw new SQLException("Stub database '" + name + "' is down");
+        }
+        long latencyNanos = urlParameter(url, "latencyMicros") * 1_000;
+        int questions = (int) urlParameter(url, "questions");
+        int results = (int) urlParameter(url, "results");
+        return newConnection(name, latencyNanos, questions, results);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getLogger("bench.stub");
+    }
+
+    private static long urlParameter(String url, String name) {
+        int q = url.indexOf(name + "=");
+        return q < 0 ? 0 : Long.parseLong(url.substring(q + name.length() + 1).split("&")[0]);
+    }
+
+    // Proxies
+
+    private static Connection newConnection(String name, long latencyNanos, int questions, int results) {
+        boolean[] state = {false, true}; // closed, autoCommit
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close": state[0] = true; return null;
+                case "isClosed": return state[0];
+                case "isValid": return !state[0] && !down.contains(name);
+                case "getAutoCommit": return state[1];
+                case "setAutoCommit": state[1] = (Boolean) args[0]; return null;
+                case "commit": roundTrip(latencyNanos); return null;
+                case "rollback": return null;
+                case "prepareStatement":
+                    return newStatement(PreparedStatement.class, latencyNanos, questions, results, (String) args[0]);
+                case "createStatement":
+                    return newStatement(Statement.class, latencyNanos, questions, results, null);
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default: return defaultValue(method.getReturnType());
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, handler);
+    }
+
+    private static Object newStatement(Class<? extends Statement> type, long latencyNanos,
+                                       int questions, int results, String preparedSql) {
+        int[] batch = {0};
+        int[] fetchSize = {0};
+        Map<Integer, Object> params = new HashMap<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setInt":
+                case "setLong":
+                case "setString":
+                    params.put((Integer) args[0], args[1]);
+                    return null;
+                case "clearParameters":
+                    params.clear();
+                    return null;
+                case "setFetchSize":
+                    fetchSize[0] = (Integer) args[0];
+                    return null;
+                case "addBatch":
+                    batch[0]++;
+                    return null;
+                case "executeBatch":
+                    roundTrip(latencyNanos);
+                    rowsWritten.addAndGet(batch[0]);
+                    int[] counts = new int[batch[0]];
+                    Arrays.fill(counts, 1);
+                    batch[0] = 0;
+                    return counts;
+                case "executeUpdate":
+                    roundTrip(latencyNanos);
+                    // Multi-row INSERT ... VALUES (?, ...), (?, ...) counts every row
+                    String update = preparedSql != null ? preparedSql : (String) args[0];
+                    int rows = Math.max(1, update.split("\\(\\?", -1).length - 1);
+                    rowsWritten.addAndGet(rows);
+                    return rows;
+                case "executeQuery":
+                    roundTrip(latencyNanos);
+                    String sql = preparedSql != null ? preparedSql : (String) args[0];
+                    if (questions > 0 && sql.contains("FROM questions")) {
+                        return questionResultSet(sql, questions, params, fetchSize[0], latencyNanos);
+                    }
+                    if (results > 0 && sql.contains("FROM users")) {
+                        return resultResultSet(sql, results, params, fetchSize[0], latencyNanos);
+                    }
+                    return emptyResultSet();
+                case "execute":
+                    roundTrip(latencyNanos);
+                    return false;
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default: return defaultValue(method.getReturnType());
+            }
+        };
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static ResultSet emptyResultSet() {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("equals")) return proxy == args[0];
+            return defaultValue(method.getReturnType());
+        };
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, handler);
+    }
+
+    /**
+     * Generated rows of the questions table; row i has id i and is identical on every query
+     */
+    private static ResultSet questionResultSet(String sql, int questions, Map<Integer, Object> params,
+                                               int fetchSize, long latencyNanos) {
+        int[] ids;
+        if (sql.contains("DISTINCT topic")) {
+            ids = new int[Math.min(questions, QuestionGenerator.TOPICS.length)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i + 1;
+            }
+        } else if (sql.contains("id IN")) {
+            ids = params.values().stream().mapToInt(v -> (Integer) v).filter(id -> id >= 1 && id <= questions).toArray();
+        } else if (sql.contains("topic IN")) {
+            Set<Object> topics = new HashSet<>(params.values());
+            ids = IntStream.rangeClosed(1, questions).filter(id -> topics.contains(topicOf(id))).toArray();
+        } else {
+            ids = null; // full scan: 1..questions without materializing the ids
+        }
+        return generatedResultSet(sql, ids, questions, StubJdbcDriver::questionColumn, fetchSize, latencyNanos);
+    }
+
+    /**
+     * Generated rows of the users table (saved results); row i has id i
+     */
+    private static ResultSet resultResultSet(String sql, int results, Map<Integer, Object> params,
+                                             int fetchSize, long latencyNanos) {
+        if (sql.contains("MAX(id)")) {
+            return generatedResultSet(sql, new int[] {1}, 1, (id, column) -> (long) results, fetchSize, latencyNanos);
+        }
+        int[] ids = null; // full scan
+        if (sql.contains("id > ?")) {
+            long from = ((Number) params.get(1)).longValue();
+            long to = sql.contains("id <= ?") ? ((Number) params.get(2)).longValue() : results;
+            int limit = sql.contains("LIMIT") ? Integer.parseInt(sql.substring(sql.indexOf("LIMIT") + 5).trim()) : results;
+            int first = (int) Math.max(1, from + 1);
+            int last = (int) Math.min(Math.min(to, results), (long) first + limit - 1);
+            ids = IntStream.rangeClosed(first, last).toArray();
+        }
+        return generatedResultSet(sql, ids, results, StubJdbcDriver::resultColumn, fetchSize, latencyNanos);
+    }
+
+    /**
+     * Rows for the given ids (null = 1..count), fetched in chunks of fetchSize with one
+     * simulated round trip per chunk
+     */
+    private static ResultSet generatedResultSet(String sql, int[] ids, int count, BiFunction<Integer, String, Object> row,
+                                                int fetchSize, long latencyNanos) {
+        // Selected columns, so getXxx(int) works as well as getXxx(String)
+        String select = sql.substring(sql.indexOf("SELECT") + 6, sql.indexOf("FROM")).replace("DISTINCT", "");
+        List<String> columns = new ArrayList<>();
+        for (String column : select.split(",")) {
+            columns.add(column.trim());
+        }
+        int rows = ids != null ? ids.length : count;
+        int chunk = fetchSize > 0 ? fetchSize : rows;
+
+        int[] cursor = {-1};
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("next")) {
+                cursor[0]++;
+                if (cursor[0] > 0 && chunk > 0 && cursor[0] % chunk == 0 && cursor[0] < rows) {
+                    roundTrip(latencyNanos);
+                }
+                return cursor[0] < rows;
+            }
+            if (name.equals("getInt") || name.equals("getLong") || name.equals("getString")) {
+                String column = args[0] instanceof Integer ? columns.get((Integer) args[0] - 1) : (String) args[0];
+                int id = ids != null ? ids[cursor[0]] : cursor[0] + 1;
+                Object value = row.apply(id, column);
+                if (name.equals("getInt")) {
+                    bytesRead.addAndGet(4);
+                    return value instanceof Number ? ((Number) value).intValue() : 0;
+                }
+                if (name.equals("getLong")) {
+                    bytesRead.addAndGet(8);
+                    return value instanceof Number ? ((Number) value).longValue() : 0L;
+                }
+                String text = value == null ? null : value.toString();
+                bytesRead.addAndGet(text == null ? 0 : text.getBytes(StandardCharsets.UTF_8).length);
+                return text;
+            }
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            if (name.equals("equals")) return proxy == args[0];
+            return defaultValue(method.getReturnType());
+        };
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, handler);
+    }
+
+    private static String topicOf(int id) {
+        return QuestionGenerator.TOPICS[(id - 1) % QuestionGenerator.TOPICS.length];
+    }
+
+    private static Object resultColumn(int id, String column) {
+        switch (column) {
+            case "id": return id;
+            case "username": return "user" + id % 10_000;
+            case "score": return (id * 7919) % 300;
+            case "topic": return id % 5 == 0 ? "All Topics" : topicOf(id) + ", " + topicOf(id + 1);
+            case "correct_answers": return 5 + id % 10;
+            case "wrong_answers": return id % 7;
+            case "max_difficulty_reached": return 1 + id % 3;
+            default: return null;
+        }
+    }
+
+    private static Object questionColumn(int id, String column) {
+        switch (column) {
+            case "id": return id;
+            case "topic": return topicOf(id);
+            case "difficulty": return 1 + (id / QuestionGenerator.TOPICS.length) % 3;
+            case "correct_option": return 1 + id % 4;
+            case "question": return "Sample question #" + id + " about " + topicOf(id) + "?";
+            case "option1": return "Option A for #" + id;
+            case "option2": return "Option B for #" + id;
+            case "option3": return "Option C for #" + id;
+            case "option4": return "Option D for #" + id;
+            default: return null;
+        }
+    }
+
+    private static void roundTrip(long latencyNanos) {
+        roundTrips.incrementAndGet();
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return null;
+    }
+}
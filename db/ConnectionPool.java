@@ -0,0 +1,526 @@
+package db;
+
+import metrics.LatencyHistogram;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * ConnectionPool - Bounded JDBC connection pool exposed as a DataSource
+ * Features: min/max size, validation on borrow, idle eviction, leak detection, wait metrics
+ *
+ * Borrowed connections are proxies; calling close() returns the physical
+ * connection to the pool instead of closing it, so callers use try-with-resources.
+ *
+ * Leak detection only timestamps each borrow; the borrowing stack trace is captured
+ * only with -Dquiz.db.pool.leakStackTraces=true, as it costs an exception per borrow.
+ */
+public class ConnectionPool implements DataSource {
+
+    // Defaults - override with setters before first use
+    private static final long DEFAULT_BORROW_TIMEOUT_MS = 5_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long DEFAULT_LEAK_THRESHOLD_MS = 60_000;
+    private static final boolean DEFAULT_LEAK_STACK_TRACES = Boolean.getBoolean("quiz.db.pool.leakStackTraces");
+    private static final long DEFAULT_VALIDATE_AFTER_IDLE_MS = 1_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 10_000;
+
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+
+    private long borrowTimeoutMillis = DEFAULT_BORROW_TIMEOUT_MS;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MS;
+    private long leakThresholdMillis = DEFAULT_LEAK_THRESHOLD_MS;
+    private boolean leakStackTraces = DEFAULT_LEAK_STACK_TRACES;
+    private long validateAfterIdleMillis = DEFAULT_VALIDATE_AFTER_IDLE_MS;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final LatencyHistogram borrowWait;
+
+    /**
+     * Create a pool; connections are opened lazily up to maxSize
+     */
+    public ConnectionPool(String name, String url, String user, String password, int minSize, int maxSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.borrowWait = new LatencyHistogram("pool." + name + ".borrowWait");
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-" + name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+            HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Configuration
+
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Connections held longer than this are reported as leaks (0 disables)
+     */
+    public void setLeakThresholdMillis(long leakThresholdMillis) {
+        this.leakThresholdMillis = leakThresholdMillis;
+    }
+
+    /**
+     * Record where each connection was borrowed so leak reports show the caller (diagnostics only)
+     */
+    public void setLeakStackTraces(boolean leakStackTraces) {
+        this.leakStackTraces = leakStackTraces;
+    }
+
+    /**
+     * Idle connections older than this are validated before being handed out
+     */
+    public void setValidateAfterIdleMillis(long validateAfterIdleMillis) {
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+    }
+
+    /**
+     * Open connections until the pool holds minSize
+     */
+    public void fill() throws SQLException {
+        while (!closed && totalConnections.get() < minSize) {
+            idle.offerLast(create());
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout
+     * @return pooled connection; close() returns it to the pool
+     * @throws SQLTransientConnectionException if the pool stayed exhausted for the whole timeout
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return tryBorrow(borrowTimeoutMillis);
+    }
+
+    /**
+     * Borrow a connection, waiting at most timeoutMillis (0 = only if one is free right now)
+     * For callers with somewhere else to go, such as ReplicaRouter trying the next replica
+     * @throws SQLTransientConnectionException if the pool stayed exhausted for the whole timeout
+     */
+    public Connection tryBorrow(long timeoutMillis) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            borrowTimeouts.incrementAndGet();
+            throw new SQLTransientConnectionException("Timed out after " + timeoutMillis
+                + " ms waiting for a connection from pool '" + name + "'");
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = create();
+            }
+            pooled.onBorrow(leakStackTraces && leakThresholdMillis > 0);
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool credentials are fixed at construction");
+    }
+
+    /**
+     * Take a valid idle connection, discarding any that fail validation
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long idleMillis = (System.nanoTime() - pooled.lastUsedNanos) / 1_000_000;
+            if (idleMillis < validateAfterIdleMillis || isValid(pooled)) {
+                return pooled;
+            }
+            validationFailures.incrementAndGet();
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    /**
+     * Return a borrowed connection to the pool (called from the proxy's close())
+     */
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            // Leave the connection the way the next borrower expects it
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsedNanos = System.nanoTime();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is already unusable; nothing else to do
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(nanos);
+        maxBorrowWaitNanos.accumulateAndGet(nanos, Math::max);
+        borrowWait.record(nanos);
+    }
+
+    /**
+     * Periodic task: evict idle connections, top up to minSize, report leaks
+     */
+    private void housekeep() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+
+        // Idle eviction above minSize (oldest idle connections sit at the tail)
+        PooledConnection oldest;
+        while (totalConnections.get() > minSize && (oldest = idle.peekLast()) != null
+                && (now - oldest.lastUsedNanos) / 1_000_000 > idleTimeoutMillis) {
+            if (idle.removeLastOccurrence(oldest)) {
+                evictedCount.incrementAndGet();
+                destroy(oldest);
+            }
+        }
+
+        try {
+            fill();
+        } catch (SQLException e) {
+            System.err.println("✗ Pool '" + name + "' could not open minimum connections: " + e.getMessage());
+        }
+
+        // Leak detection
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : borrowed) {
+                long heldMillis = (now - pooled.borrowedNanos) / 1_000_000;
+                if (heldMillis > leakThresholdMillis && !pooled.leakReported) {
+                    pooled.leakReported = true;
+                    leakCount.incrementAndGet();
+                    Throwable site = pooled.borrowSite;
+                    System.err.println("⚠ Possible connection leak in pool '" + name + "': held for " + heldMillis
+                        + " ms" + (site != null ? ", borrowed at:" : " (-Dquiz.db.pool.leakStackTraces=true shows where)"));
+                    if (site != null) {
+                        site.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Close all connections and stop the housekeeper
+     * Borrowed connections are closed when they are returned
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Metrics
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Threads currently blocked waiting for a connection
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    public long getTotalBorrowWaitNanos() {
+        return borrowWaitNanos.get();
+    }
+
+    public double getAverageBorrowWaitMicros() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : borrowWaitNanos.get() / 1_000.0 / count;
+    }
+
+    public double getMaxBorrowWaitMicros() {
+        return maxBorrowWaitNanos.get() / 1_000.0;
+    }
+
+    /**
+     * Distribution of time spent waiting for a connection
+     */
+    public LatencyHistogram getBorrowWaitHistogram() {
+        return borrowWait;
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("pool=%s total=%d active=%d idle=%d waiting=%d borrows=%d "
+                + "avgWait=%.1fus maxWait=%.1fus timeouts=%d invalid=%d evicted=%d leaks=%d",
+            name, getTotalCount(), getActiveCount(), getIdleCount(), getWaitingCount(),
+            getBorrowCount(), getAverageBorrowWaitMicros(), getMaxBorrowWaitMicros(),
+            getBorrowTimeouts(), getValidationFailures(), getEvictedCount(), getLeakCount());
+    }
+
+    // DataSource boilerplate
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * PooledConnection - Physical connection plus pool bookkeeping
+     */
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private volatile long borrowedNanos;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        void onBorrow(boolean captureSite) {
+            borrowedNanos = System.nanoTime();
+            borrowSite = captureSite ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+        }
+
+        /**
+         * New logical handle; each borrow gets its own so a stale handle cannot
+         * close a connection that has since been lent to someone else
+         */
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new Handle(this));
+        }
+    }
+
+    /**
+     * Handle - Proxy handler that turns close() into a return to the pool
+     */
+    private final class Handle implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private boolean released;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
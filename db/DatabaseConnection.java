@@ -1,21 +1,53 @@
 package db;
 
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * DatabaseConnection - Manages JDBC connection to MySQL database
- * Uses Singleton pattern to ensure only one connection instance
+ * DatabaseConnection - Manages JDBC connections to MySQL database
+ * Hands out connections from a shared bounded pool; callers close them to return them
+ *
+ * With -Dquiz.db.shards=shards.properties, questions are spread over several
+ * databases by topic (see ShardMap); getConnection() then returns a connection to
+ * the shard that holds quiz results.
+ *
+ * With -Dquiz.db.replicas=url1;url2, getReadConnection() sends read-only queries
+ * to those replicas of that database (see ReplicaRouter); getConnection() always
+ * returns a primary connection.
  */
 public class DatabaseConnection {
     
     // Database credentials - modify according to your setup
-    private static final String URL = "jdbc:mysql://localhost:3306/quizdb";
-    private static final String USER = "root";
-    private static final String PASSWORD = "YourStrongPass@123"; // Change this to your MySQL password
+    // (or override with -Dquiz.db.url / -Dquiz.db.user / -Dquiz.db.password)
+    // useCursorFetch lets large question scans stream rows in fetch-size chunks;
+    // rewriteBatchedStatements turns JDBC batches into multi-row INSERTs
+    private static final String URL = System.getProperty("quiz.db.url",
+        "jdbc:mysql://localhost:3306/quizdb?useCursorFetch=true&rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("quiz.db.user", "root");
+    private static final String PASSWORD = System.getProperty("quiz.db.password",
+        "YourStrongPass@123"); // Change this to your MySQL password
+    
+    // Pool sizing (override with -Dquiz.db.pool.min / -Dquiz.db.pool.max)
+    private static final int MIN_POOL_SIZE = Integer.getInteger("quiz.db.pool.min", 2);
+    private static final int MAX_POOL_SIZE = Integer.getInteger("quiz.db.pool.max", 10);
+    
+    // Optional topic shard map file
+    private static final String SHARDS_FILE = System.getProperty("quiz.db.shards");
+    
+    // Optional read replicas, separated by ';' (same credentials as the primary)
+    private static final String REPLICA_URLS = System.getProperty("quiz.db.replicas", "");
+    private static final long REPLICA_HEALTH_CHECK_MILLIS = Long.getLong("quiz.db.replicas.healthCheckMillis", 5_000);
     
-    private static Connection connection = null;
+    // Written under the class lock, read without it on every borrow
+    private static volatile ConnectionPool pool = null;
+    private static volatile ShardMap shardMap = null;
+    private static volatile ReplicaRouter replicaRouter = null;
     
     /**
      * Private constructor to prevent instantiation
@@ -24,51 +56,201 @@ public class DatabaseConnection {
     }
     
     /**
-     * Get database connection (Singleton pattern)
-     * @return Connection object
+     * Get the shared connection pool, creating it on first use
+     * @return pooled DataSource
+     */
+    public static ConnectionPool getDataSource() {
+        ConnectionPool current = pool;
+        return current != null && !current.isClosed() ? current : createDataSource();
+    }
+    
+    private static synchronized ConnectionPool createDataSource() {
+        if (pool == null || pool.isClosed()) {
+            ShardMap shards = getShardMap();
+            ConnectionPool created;
+            if (shards != null) {
+                created = shards.getResultsShard().getPool();
+            } else {
+                loadDriver(URL);
+                created = new ConnectionPool("quizdb", URL, USER, PASSWORD, MIN_POOL_SIZE, MAX_POOL_SIZE);
+            }
+            // Router first: a reader that sees the new pool must also see its router
+            replicaRouter = createReplicaRouter(created);
+            pool = created;
+            registerPoolMetrics();
+        }
+        return pool;
+    }
+    
+    /**
+     * Router over the configured read replicas, or null when there are none
      */
-    public static Connection getConnection() {
+    public static ReplicaRouter getReplicaRouter() {
+        getDataSource();
+        return replicaRouter;
+    }
+    
+    private static ReplicaRouter createReplicaRouter(ConnectionPool primary) {
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (String url : REPLICA_URLS.split(";")) {
+            if (!url.isBlank()) {
+                loadDriver(url.trim());
+                replicas.add(new ConnectionPool("quizdb-replica-" + (replicas.size() + 1), url.trim(), USER, PASSWORD,
+                    MIN_POOL_SIZE, MAX_POOL_SIZE));
+            }
+        }
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        ReplicaRouter router = new ReplicaRouter(primary, replicas, REPLICA_HEALTH_CHECK_MILLIS);
+        registerReplicaMetrics(router);
+        System.out.println("✓ Routing reads to " + replicas.size() + " replica(s)");
+        return router;
+    }
+    
+    /**
+     * Topic shard map, or null when all questions live in one database
+     * @throws IllegalStateException if -Dquiz.db.shards names a file that cannot be read
+     */
+    public static ShardMap getShardMap() {
+        ShardMap current = shardMap;
+        return current != null || SHARDS_FILE == null || SHARDS_FILE.isEmpty() ? current : loadShardMap();
+    }
+    
+    private static synchronized ShardMap loadShardMap() {
+        if (shardMap == null) {
+            try {
+                shardMap = ShardMap.load(Paths.get(SHARDS_FILE), USER, PASSWORD, MIN_POOL_SIZE, MAX_POOL_SIZE);
+                System.out.println("✓ Loaded shard map " + SHARDS_FILE + ": " + shardMap.getShards().size()
+                    + " shards, " + shardMap.getTopics().size() + " topics");
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Cannot load shard map " + SHARDS_FILE + ": " + e.getMessage(), e);
+            }
+        }
+        return shardMap;
+    }
+    
+    /**
+     * Load the MySQL JDBC driver if the URL needs it
+     */
+    static void loadDriver(String url) {
         try {
-            if (connection == null || connection.isClosed()) {
-                // Load MySQL JDBC Driver
+            // Load MySQL JDBC Driver
+            if (url.startsWith("jdbc:mysql:")) {
                 Class.forName("com.mysql.cj.jdbc.Driver");
-                
-                // Establish connection
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("✓ Database connected successfully!");
             }
         } catch (ClassNotFoundException e) {
             System.err.println("✗ MySQL JDBC Driver not found!");
             System.err.println("Add mysql-connector-java JAR to classpath");
             e.printStackTrace();
-        } catch (SQLException e) {
-            System.err.println("✗ Database connection failed!");
-            System.err.println("Check if MySQL is running and credentials are correct");
-            e.printStackTrace();
         }
-        return connection;
     }
     
     /**
-     * Close database connection
+     * Expose pool gauges; suppliers read the current pool so a recreated pool is picked up
      */
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✓ Database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("✗ Error closing database connection");
-            e.printStackTrace();
+    private static void registerPoolMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("quiz_db_pool_connections{state=\"active\"}", () -> pool.getActiveCount());
+        metrics.gauge("quiz_db_pool_connections{state=\"idle\"}", () -> pool.getIdleCount());
+        metrics.gauge("quiz_db_pool_connections{state=\"total\"}", () -> pool.getTotalCount());
+        metrics.gauge("quiz_db_pool_max_size", () -> pool.getMaxSize());
+        metrics.gauge("quiz_db_pool_waiting_threads", () -> pool.getWaitingCount());
+        metrics.gauge("quiz_db_pool_borrow_timeouts", () -> pool.getBorrowTimeouts());
+        metrics.gauge("quiz_db_pool_borrow_wait_p99_seconds",
+            () -> pool.getBorrowWaitHistogram().getPercentileNanos(99) / 1e9);
+    }
+    
+    /**
+     * Expose read routing counters and replica health
+     */
+    private static void registerReplicaMetrics(ReplicaRouter router) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("quiz_db_reads_total{target=\"replica\"}", () -> router.getReplicaReads());
+        metrics.gauge("quiz_db_reads_total{target=\"primary\"}", () -> router.getPrimaryReads());
+        metrics.gauge("quiz_db_read_failovers_total", () -> router.getFailovers());
+        metrics.gauge("quiz_db_replica_health_check_failures_total", () -> router.getHealthCheckFailures());
+        metrics.gauge("quiz_db_replicas_healthy", () -> router.getHealthyCount());
+        for (ReplicaRouter.Replica replica : router.getReplicas()) {
+            String label = "{replica=\"" + replica.getPool().getName() + "\"}";
+            metrics.gauge("quiz_db_replica_up" + label, () -> replica.isHealthy() ? 1 : 0);
+            metrics.gauge("quiz_db_replica_reads_total" + label, () -> replica.getReads());
+            metrics.gauge("quiz_db_replica_pool_active" + label, () -> replica.getPool().getActiveCount());
+        }
+    }
+    
+    /**
+     * Borrow a connection to the primary database
+     * Close it (try-with-resources) to return it to the pool
+     * @return Connection object
+     */
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+    
+    /**
+     * Borrow a connection for a read-only query that tolerates replication lag
+     * Goes to a healthy replica when any are configured, else to the primary
+     */
+    public static Connection getReadConnection() throws SQLException {
+        ReplicaRouter router = getReplicaRouter();
+        return router != null ? router.getReadConnection() : getConnection();
+    }
+    
+    /**
+     * Close all pooled connections
+     */
+    public static synchronized void closeConnection() {
+        if (replicaRouter != null) {
+            System.out.println("✓ " + replicaRouter.getStatsSummary());
+            replicaRouter.close();
+            replicaRouter = null;
+        }
+        if (shardMap != null) {
+            System.out.println("✓ " + shardMap.getStatsSummary());
+            shardMap.close();
+            shardMap = null;
+            System.out.println("✓ Shard connections closed");
+        } else if (pool != null && !pool.isClosed()) {
+            System.out.println("✓ " + pool.getStatsSummary());
+            pool.close();
+            System.out.println("✓ Database connections closed");
         }
     }
     
     /**
-     * Test database connection
+     * Test database connection and pre-fill the pool
      */
     public static boolean testConnection() {
-        Connection conn = getConnection();
-        return conn != null;
+        try (Connection conn = getConnection()) {
+            getDataSource().fill();
+            ShardMap shards = getShardMap();
+            if (shards != null) {
+                for (ShardMap.Shard shard : shards.getShards()) {
+                    try (Connection shardConn = shard.getConnection()) {
+                        if (!shardConn.isValid(2)) {
+                            throw new SQLException("Shard " + shard.getName() + " connection is not valid");
+                        }
+                        shard.getPool().fill();
+                        System.out.println("✓ Shard " + shard.getName() + " connected (" + shard.getTopics().size()
+                            + " topics)");
+                    }
+                }
+            }
+            ReplicaRouter router = getReplicaRouter();
+            if (router != null) {
+                // An unreachable replica is not fatal: reads fall back to the primary
+                router.checkHealth();
+                System.out.println("✓ Read replicas healthy: " + router.getHealthyCount() + "/"
+                    + router.getReplicas().size());
+            }
+            System.out.println("✓ Database connected successfully!");
+            return conn.isValid(2);
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("✗ Database connection failed!");
+            System.err.println("Check if MySQL is running and credentials are correct");
+            e.printStackTrace();
+            return false;
+        }
     }
 }
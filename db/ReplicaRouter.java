@@ -0,0 +1,236 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReplicaRouter - Sends read-only queries to read replicas, everything else to the primary
+ * Reads go to the healthy replica with the fewest borrowed connections (round-robin
+ * among ties). A replica whose pool is exhausted is skipped without waiting; one that
+ * refuses a connection is marked down. Either way the read moves on to the next replica,
+ * and when none can serve it the read falls back to the primary.
+ * A background check revalidates every replica so failed ones rejoin on recovery.
+ *
+ * Replicas lag the primary, so only reads that tolerate slightly stale data should
+ * use getReadConnection(); read-your-writes queries stay on the primary.
+ */
+public class ReplicaRouter {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long REPLICA_BORROW_TIMEOUT_MS = 0; // a busy replica is skipped, not waited for
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    // Metrics
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong healthCheckFailures = new AtomicLong();
+
+    /**
+     * Route between a primary and its replicas; replicas start healthy and are checked periodically
+     * @param healthCheckMillis interval between replica health checks
+     */
+    public ReplicaRouter(ConnectionPool primary, List<ConnectionPool> replicaPools, long healthCheckMillis) {
+        if (replicaPools.isEmpty()) {
+            throw new IllegalArgumentException("ReplicaRouter needs at least one replica");
+        }
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>(replicaPools.size());
+        for (ConnectionPool pool : replicaPools) {
+            list.add(new Replica(pool));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckMillis, healthCheckMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Connection for writes and read-your-writes queries
+     */
+    public Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    /**
+     * Connection for a read-only query: a healthy replica with a free connection, else the primary
+     * Only the primary borrow waits for its pool's borrow timeout.
+     */
+    public Connection getReadConnection() throws SQLException {
+        List<Replica> tried = new ArrayList<>(replicas.size());
+        Replica replica;
+        while ((replica = pick(tried)) != null) {
+            try {
+                Connection connection = replica.pool.tryBorrow(REPLICA_BORROW_TIMEOUT_MS);
+                replica.reads.incrementAndGet();
+                replicaReads.incrementAndGet();
+                return connection;
+            } catch (SQLTransientConnectionException e) {
+                // Pool exhausted: the replica is busy, not down
+                failovers.incrementAndGet();
+            } catch (SQLException e) {
+                markDown(replica, e);
+                failovers.incrementAndGet();
+            }
+            tried.add(replica);
+        }
+        primaryReads.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    /**
+     * Least-busy healthy replica not yet tried; the round-robin start spreads ties
+     */
+    private Replica pick(List<Replica> tried) {
+        int count = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), count);
+        Replica best = null;
+        for (int i = 0; i < count; i++) {
+            Replica candidate = replicas.get((start + i) % count);
+            if (candidate.healthy && !tried.contains(candidate)
+                    && (best == null || candidate.pool.getActiveCount() < best.pool.getActiveCount())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Validate every replica, marking each up or down
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("validation failed");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    System.out.println("✓ Read replica " + replica.pool.getName() + " is healthy again");
+                }
+            } catch (SQLTransientConnectionException e) {
+                // Every connection is in use, so the replica is answering queries
+            } catch (SQLException e) {
+                healthCheckFailures.incrementAndGet();
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            System.err.println("⚠ Read replica " + replica.pool.getName() + " marked down: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Stop health checks and close the replica pools (the primary pool is closed by its owner)
+     */
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    // Statistics
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Reads served by a replica
+     */
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    /**
+     * Reads that fell back to the primary because no replica was available
+     */
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    /**
+     * Replica borrows that failed and moved on to another replica or the primary
+     */
+    public long getFailovers() {
+        return failovers.get();
+    }
+
+    public long getHealthCheckFailures() {
+        return healthCheckFailures.get();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        StringBuilder sb = new StringBuilder("replicas healthy=").append(getHealthyCount()).append('/')
+            .append(replicas.size()).append(" replicaReads=").append(getReplicaReads())
+            .append(" primaryReads=").append(getPrimaryReads()).append(" failovers=").append(getFailovers())
+            .append(" healthCheckFailures=").append(getHealthCheckFailures());
+        for (Replica replica : replicas) {
+            sb.append(' ').append(replica.pool.getName()).append('=').append(replica.reads.get())
+                .append(replica.healthy ? "" : "(down)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Replica - One read replica's pool and routing state
+     */
+    public static final class Replica {
+
+        private final ConnectionPool pool;
+        private final AtomicLong reads = new AtomicLong();
+        private volatile boolean healthy = true;
+
+        Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        public ConnectionPool getPool() {
+            return pool;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getReads() {
+            return reads.get();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SchemaManager - Versioned DDL for the quiz tables and a startup check of their access paths
+ * Migrations are numbered and recorded in schema_version; each startup applies the ones
+ * not yet recorded, then verifies the result and EXPLAINs the hot queries.
+ *
+ *   1. questions and users tables
+ *   2. questions(topic, difficulty) - topic-filtered loads and SELECT DISTINCT topic
+ *      (InnoDB appends the primary key, so the id/topic/difficulty scan is index-only);
+ *      users(score) - score-ordered leaderboard queries
+ *   3. question_stats - per-question answer totals written by QuestionStats
+ *
+ * Index checks compare leading columns, not names, so an equivalent index created by
+ * hand is accepted. Mode (-Dquiz.db.schema): migrate (default) applies DDL, verify only
+ * reports, off skips the check. Only MySQL databases are checked.
+ */
+public class SchemaManager {
+
+    public static final String DEFAULT_MODE = System.getProperty("quiz.db.schema", "migrate");
+
+    // An EXPLAIN row estimate at or above this on a scan plan is reported
+    private static final long FULL_SCAN_WARN_ROWS = 1_000;
+
+    private static final List<Migration> MIGRATIONS = Arrays.asList(
+        new Migration(1, "create questions and users tables", connection -> {
+            execute(connection, "CREATE TABLE IF NOT EXISTS questions ("
+                + " id INT AUTO_INCREMENT PRIMARY KEY,"
+                + " question TEXT NOT NULL,"
+                + " option1 VARCHAR(500) NOT NULL,"
+                + " option2 VARCHAR(500) NOT NULL,"
+                + " option3 VARCHAR(500) NOT NULL,"
+                + " option4 VARCHAR(500) NOT NULL,"
+                + " correct_option TINYINT NOT NULL,"
+                + " difficulty TINYINT NOT NULL,"
+                + " topic VARCHAR(100) NOT NULL"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+            execute(connection, "CREATE TABLE IF NOT EXISTS users ("
+                + " id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " username VARCHAR(100) NOT NULL,"
+                + " score INT NOT NULL,"
+                + " topic VARCHAR(1000),"
+                + " correct_answers INT NOT NULL,"
+                + " wrong_answers INT NOT NULL,"
+                + " max_difficulty_reached INT NOT NULL,"
+                + " created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        }),
+        new Migration(2, "index questions(topic, difficulty) and users(score)", connection -> {
+            ensureIndex(connection, "questions", "idx_questions_topic_difficulty", "topic", "difficulty");
+            ensureIndex(connection, "users", "idx_users_score", "score");
+        }),
+        new Migration(3, "create question_stats table", connection -> {
+            execute(connection, "CREATE TABLE IF NOT EXISTS question_stats ("
+                + " question_id INT PRIMARY KEY,"
+                + " attempts BIGINT NOT NULL DEFAULT 0,"
+                + " correct_answers BIGINT NOT NULL DEFAULT 0,"
+                + " answer_millis BIGINT NOT NULL DEFAULT 0,"
+                + " updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP"
+                + ") ENGINE=InnoDB");
+        })
+    );
+
+    private static final Map<String, List<String>> REQUIRED_COLUMNS = new TreeMap<>();
+    static {
+        REQUIRED_COLUMNS.put("questions", Arrays.asList("id", "question", "option1", "option2", "option3",
+            "option4", "correct_option", "difficulty", "topic"));
+        REQUIRED_COLUMNS.put("question_stats", Arrays.asList("question_id", "attempts", "correct_answers",
+            "answer_millis"));
+        REQUIRED_COLUMNS.put("users", Arrays.asList("id", "username", "score", "topic", "correct_answers",
+            "wrong_answers", "max_difficulty_reached"));
+    }
+
+    private final boolean applyDdl;
+    private final List<String> warnings = new ArrayList<>();
+
+    /**
+     * @param mode "migrate" to apply pending migrations, "verify" to only report
+     */
+    public SchemaManager(String mode) {
+        if (!mode.equals("migrate") && !mode.equals("verify")) {
+            throw new IllegalArgumentException("Unknown schema mode: " + mode);
+        }
+        this.applyDdl = mode.equals("migrate");
+    }
+
+    /**
+     * Check the primary database, or every shard when a shard map is configured
+     * Replicas receive the DDL through replication and are not touched.
+     * @return false if any database reported a problem
+     */
+    public static boolean checkDatabases() {
+        if (DEFAULT_MODE.equals("off")) {
+            return true;
+        }
+        SchemaManager manager = new SchemaManager(DEFAULT_MODE);
+        try {
+            ShardMap shards = DatabaseConnection.getShardMap();
+            if (shards == null) {
+                try (Connection connection = DatabaseConnection.getConnection()) {
+                    manager.check(connection, "quizdb");
+                }
+            } else {
+                for (ShardMap.Shard shard : shards.getShards()) {
+                    try (Connection connection = shard.getConnection()) {
+                        manager.check(connection, "shard " + shard.getName());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ Schema check failed: " + e.getMessage());
+            return false;
+        }
+        return manager.warnings.isEmpty();
+    }
+
+    /**
+     * Migrate (in migrate mode) and verify one database, printing the outcome
+     */
+    public void check(Connection connection, String label) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        if (meta == null || !"MySQL".equalsIgnoreCase(meta.getDatabaseProductName())) {
+            System.out.println("⚠ Schema check skipped for " + label + ": not a MySQL database");
+            return;
+        }
+
+        int version = currentVersion(connection);
+        if (applyDdl) {
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version > version) {
+                    // MySQL DDL commits implicitly; steps are idempotent so a failed migration can be rerun
+                    migration.step.apply(connection);
+                    recordVersion(connection, migration);
+                    version = migration.version;
+                    System.out.println("✓ Schema " + label + ": applied v" + migration.version + " ("
+                        + migration.description + ")");
+                }
+            }
+        }
+
+        int warningsBefore = warnings.size();
+        int latest = MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+        if (version < latest) {
+            warn(label, "schema is at v" + version + ", code expects v" + latest);
+        }
+        verifyColumns(connection, label);
+        verifyIndex(connection, label, "questions", "topic", "difficulty");
+        verifyIndex(connection, label, "users", "score");
+        explainHotQueries(connection, label);
+        if (warnings.size() == warningsBefore) {
+            System.out.println("✓ Schema " + label + ": v" + version + ", indexes and query plans OK");
+        }
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    // Versioning
+
+    private static int currentVersion(Connection connection) throws SQLException {
+        execute(connection, "CREATE TABLE IF NOT EXISTS schema_version ("
+            + " version INT PRIMARY KEY,"
+            + " description VARCHAR(200) NOT NULL,"
+            + " applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+            + ") ENGINE=InnoDB");
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void recordVersion(Connection connection, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Verification
+
+    private void verifyColumns(Connection connection, String label) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        for (Map.Entry<String, List<String>> table : REQUIRED_COLUMNS.entrySet()) {
+            List<String> missing = new ArrayList<>(table.getValue());
+            try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, table.getKey(), null)) {
+                while (rs.next()) {
+                    missing.remove(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            if (missing.size() == table.getValue().size()) {
+                warn(label, "table " + table.getKey() + " does not exist");
+            } else if (!missing.isEmpty()) {
+                warn(label, "table " + table.getKey() + " is missing columns " + missing);
+            }
+        }
+    }
+
+    private void verifyIndex(Connection connection, String label, String table, String... columns)
+            throws SQLException {
+        if (!hasIndex(connection, table, columns)) {
+            warn(label, "no index on " + table + "(" + String.join(", ", columns) + ")"
+                + (applyDdl ? "" : "; start with -Dquiz.db.schema=migrate to create it"));
+        }
+    }
+
+    /**
+     * EXPLAIN the queries run per session or per request; a scan over many rows means a missing access path
+     */
+    private void explainHotQueries(Connection connection, String label) throws SQLException {
+        String topic = "";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT topic FROM questions LIMIT 1")) {
+            if (rs.next()) {
+                topic = rs.getString(1);
+            }
+        }
+        explain(connection, label, "questions by topic",
+            "SELECT id, topic, difficulty FROM questions WHERE topic IN (?)", topic);
+        explain(connection, label, "available topics", "SELECT DISTINCT topic FROM questions ORDER BY topic");
+        explain(connection, label, "questions by id",
+            "SELECT id, question, option1, option2, option3, option4, correct_option, difficulty, topic"
+                + " FROM questions WHERE id IN (?)", 1);
+        explain(connection, label, "top scores", "SELECT username, score FROM users ORDER BY score DESC LIMIT 10");
+    }
+
+    private void explain(Connection connection, String label, String name, String query, Object... params)
+            throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + query)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String type = rs.getString("type");
+                    long rows = rs.getLong("rows");
+                    boolean scan = "ALL".equals(type) || "index".equals(type);
+                    if (scan && rows >= FULL_SCAN_WARN_ROWS) {
+                        String key = rs.getString("key");
+                        warn(label, "'" + name + "' would " + (key == null ? "scan the whole table" : "scan all of "
+                            + key) + " (~" + rows + " rows): " + query);
+                    }
+                }
+            }
+        }
+    }
+
+    private void warn(String label, String message) {
+        warnings.add(label + ": " + message);
+        System.err.println("⚠ Schema " + label + ": " + message);
+    }
+
+    // DDL helpers
+
+    /**
+     * Create an index unless one with these leading columns already exists
+     */
+    private static void ensureIndex(Connection connection, String table, String name, String... columns)
+            throws SQLException {
+        if (!hasIndex(connection, table, columns)) {
+            execute(connection, "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")");
+        }
+    }
+
+    /**
+     * True if some index on the table starts with exactly these columns, in order
+     */
+    private static boolean hasIndex(Connection connection, String table, String... columns) throws SQLException {
+        Map<String, Map<Integer, String>> indexes = new HashMap<>();
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (index != null && column != null) {
+                    indexes.computeIfAbsent(index, i -> new TreeMap<>())
+                        .put((int) rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        for (Map<Integer, String> indexColumns : indexes.values()) {
+            List<String> ordered = new ArrayList<>(indexColumns.values());
+            if (ordered.size() >= columns.length && ordered.subList(0, columns.length).equals(Arrays.asList(columns))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Migration - One numbered schema change
+     */
+    private static final class Migration {
+
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,279 @@
+package db;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ShardMap - Routes each topic's questions to its own database
+ * Loaded from a properties file (-Dquiz.db.shards=shards.properties):
+ *
+ *   shard.a.url=jdbc:mysql://db-a:3306/quizdb?useCursorFetch=true&rewriteBatchedStatements=true
+ *   shard.a.user=root            (optional, defaults to -Dquiz.db.user)
+ *   shard.a.password=secret      (optional, defaults to -Dquiz.db.password)
+ *   shard.a.topics=Java, Python, Databases
+ *   shard.b.url=...
+ *   shard.b.topics=Networking, Operating Systems
+ *   results=a                    (shard holding the users table; default: first shard)
+ *
+ * The map is the authority on which topics exist, so topic lists need no query.
+ * Each shard has its own ConnectionPool; queries that span shards run in parallel.
+ * Question ids only need to be unique within a shard.
+ */
+public class ShardMap {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+    private static final ExecutorService QUERY_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "shard-query-" + THREAD_IDS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Shard> shards = new LinkedHashMap<>();
+    private final Map<String, Shard> byTopic = new TreeMap<>();
+    private final Shard resultsShard;
+
+    /**
+     * Build from properties in the format above; pools open connections lazily
+     */
+    public ShardMap(Properties props, String defaultUser, String defaultPassword, int minPoolSize, int maxPoolSize) {
+        List<String> names = new ArrayList<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith("shard.") && key.endsWith(".url")) {
+                names.add(key.substring("shard.".length(), key.length() - ".url".length()));
+            }
+        }
+        Collections.sort(names);
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("Shard map defines no shard.<name>.url entries");
+        }
+
+        for (String name : names) {
+            String prefix = "shard." + name + ".";
+            String url = props.getProperty(prefix + "url");
+            DatabaseConnection.loadDriver(url);
+            ConnectionPool pool = new ConnectionPool("quizdb-" + name, url,
+                props.getProperty(prefix + "user", defaultUser),
+                props.getProperty(prefix + "password", defaultPassword), minPoolSize, maxPoolSize);
+            List<String> topics = new ArrayList<>();
+            for (String topic : props.getProperty(prefix + "topics", "").split(",")) {
+                if (!topic.isBlank()) {
+                    topics.add(topic.trim());
+                }
+            }
+            Shard shard = new Shard(shards.size(), name, pool, topics);
+            shards.put(name, shard);
+            for (String topic : topics) {
+                Shard previous = byTopic.put(topic, shard);
+                if (previous != null) {
+                    throw new IllegalArgumentException("Topic '" + topic + "' is mapped to shards "
+                        + previous.name + " and " + name);
+                }
+            }
+        }
+
+        String results = props.getProperty("results", names.get(0));
+        this.resultsShard = shards.get(results);
+        if (resultsShard == null) {
+            throw new IllegalArgumentException("results=" + results + " names no shard");
+        }
+    }
+
+    /**
+     * Read a shard map file
+     */
+    public static ShardMap load(Path file, String defaultUser, String defaultPassword,
+                                int minPoolSize, int maxPoolSize) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        return new ShardMap(props, defaultUser, defaultPassword, minPoolSize, maxPoolSize);
+    }
+
+    /**
+     * Shard holding a topic's questions, or null if the topic is not mapped
+     */
+    public Shard shardFor(String topic) {
+        return byTopic.get(topic);
+    }
+
+    /**
+     * Index of the shard holding a topic's questions; null or unmapped topics map to the results shard
+     */
+    public int indexFor(String topic) {
+        Shard shard = topic == null ? null : byTopic.get(topic);
+        return shard == null ? resultsShard.getIndex() : shard.getIndex();
+    }
+
+    /**
+     * All mapped topics, sorted
+     */
+    public List<String> getTopics() {
+        return new ArrayList<>(byTopic.keySet());
+    }
+
+    public List<Shard> getShards() {
+        return new ArrayList<>(shards.values());
+    }
+
+    /**
+     * Shard that stores quiz results (the users table)
+     */
+    public Shard getResultsShard() {
+        return resultsShard;
+    }
+
+    /**
+     * Group topics by the shard that holds them; unmapped topics are dropped
+     * @param topics selected topics (empty = every shard with all its topics)
+     */
+    public Map<Shard, List<String>> groupByShard(List<String> topics) {
+        Map<Shard, List<String>> groups = new LinkedHashMap<>();
+        if (topics.isEmpty()) {
+            for (Shard shard : shards.values()) {
+                if (!shard.topics.isEmpty()) {
+                    groups.put(shard, shard.topics);
+                }
+            }
+            return groups;
+        }
+        for (String topic : topics) {
+            Shard shard = byTopic.get(topic);
+            if (shard != null) {
+                groups.computeIfAbsent(shard, s -> new ArrayList<>()).add(topic);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Run a query on each shard in parallel, each on its own pooled connection
+     * @return one result per shard, in the order of the groups
+     * @throws SQLException the first shard failure, after all shards have finished
+     */
+    public <T> List<T> queryAll(Map<Shard, List<String>> groups, ShardQuery<T> query) throws SQLException {
+        List<CompletableFuture<T>> futures = new ArrayList<>(groups.size());
+        for (Map.Entry<Shard, List<String>> group : groups.entrySet()) {
+            Shard shard = group.getKey();
+            List<String> topics = group.getValue();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try (Connection connection = shard.getConnection()) {
+                    return query.run(connection, topics);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, QUERY_EXECUTOR));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        SQLException failure = null;
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof SQLException
+                        ? (SQLException) e.getCause() : new SQLException("Shard query failed", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Close every shard's pool
+     */
+    public void close() {
+        for (Shard shard : shards.values()) {
+            shard.pool.close();
+        }
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        StringBuilder sb = new StringBuilder("shards");
+        for (Shard shard : shards.values()) {
+            sb.append(' ').append(shard.name).append("=").append(shard.topics.size()).append(" topics/")
+                .append(shard.pool.getActiveCount()).append(" active");
+        }
+        return sb.append(" results=").append(resultsShard.name).toString();
+    }
+
+    /**
+     * ShardQuery - Work done on one shard's connection for its share of the topics
+     */
+    public interface ShardQuery<T> {
+        T run(Connection connection, List<String> topics) throws SQLException;
+    }
+
+    /**
+     * Shard - One database with its pool and the topics it owns
+     */
+    public static final class Shard {
+
+        private final int index;
+        private final String name;
+        private final ConnectionPool pool;
+        private final List<String> topics;
+
+        Shard(int index, String name, ConnectionPool pool, List<String> topics) {
+            this.index = index;
+            this.name = name;
+            this.pool = pool;
+            this.topics = Collections.unmodifiableList(topics);
+        }
+
+        /**
+         * Position of this shard in getShards(), stable for the life of the map
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ConnectionPool getPool() {
+            return pool;
+        }
+
+        public List<String> getTopics() {
+            return topics;
+        }
+
+        /**
+         * Borrow a connection from this shard's pool
+         */
+        public Connection getConnection() throws SQLException {
+            return pool.getConnection();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package gui;
+
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletionException;
+
+/**
+ * ErrorDialog - Modal message for a background call that failed
+ * Must be shown on the AWT event thread; the failure is also printed to stderr.
+ */
+public class ErrorDialog extends Dialog {
+
+    private static final long serialVersionUID = 1L;
+
+    private ErrorDialog(Frame owner, String message, Throwable error) {
+        super(owner, "Error", true);
+        setLayout(new BorderLayout(10, 10));
+        setBackground(new Color(245, 245, 250));
+
+        Panel text = new Panel(new GridLayout(0, 1));
+        Label messageLabel = new Label("✗ " + message, Label.CENTER);
+        messageLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        messageLabel.setForeground(Color.RED);
+        text.add(messageLabel);
+        if (error != null && error.getMessage() != null) {
+            Label detailLabel = new Label(error.getMessage(), Label.CENTER);
+            detailLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+            text.add(detailLabel);
+        }
+        add(text, BorderLayout.CENTER);
+
+        Button okButton = new Button("OK");
+        okButton.addActionListener(e -> dispose());
+        Panel buttons = new Panel(new FlowLayout(FlowLayout.CENTER));
+        buttons.add(okButton);
+        add(buttons, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            public void windowClosing(WindowEvent we) {
+                dispose();
+            }
+        });
+        pack();
+        setSize(Math.max(getWidth(), 400), getHeight());
+        setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Report a failed background call and wait for the user to dismiss it
+     * @param error failure from a CompletableFuture stage (CompletionException is unwrapped)
+     */
+    public static void show(Frame owner, String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        System.err.println("✗ " + message);
+        if (cause != null) {
+            cause.printStackTrace();
+        }
+        new ErrorDialog(owner, message, cause).setVisible(true);
+    }
+}
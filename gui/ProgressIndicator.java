@@ -0,0 +1,52 @@
+package gui;
+
+import java.awt.*;
+
+/**
+ * ProgressIndicator - Animated "working..." status on a label while a background
+ * call runs; also shows the wait cursor on the frame
+ * All methods must be called on the AWT event thread.
+ */
+public class ProgressIndicator {
+
+    private static final String[] FRAMES = {"◐", "◓", "◑", "◒"};
+    private static final int FRAME_MILLIS = 150;
+
+    private final Frame frame;
+    private final Label label;
+    private final javax.swing.Timer timer;
+    private String message = "";
+    private int tick;
+
+    public ProgressIndicator(Frame frame, Label label) {
+        this.frame = frame;
+        this.label = label;
+        // Swing timer fires on the event thread, so it can update the AWT label directly
+        this.timer = new javax.swing.Timer(FRAME_MILLIS, e -> render());
+    }
+
+    /**
+     * Show message with a spinner until stop() is called
+     */
+    public void start(String message) {
+        this.message = message;
+        this.tick = 0;
+        label.setForeground(new Color(0, 102, 204));
+        render();
+        frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        timer.start();
+    }
+
+    /**
+     * Stop the spinner and clear the label
+     */
+    public void stop() {
+        timer.stop();
+        label.setText("");
+        frame.setCursor(Cursor.getDefaultCursor());
+    }
+
+    private void render() {
+        label.setText(FRAMES[tick++ % FRAMES.length] + " " + message);
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
 import model.Question;
+import service.AsyncQuizService;
 import service.QuizService;
 
 import java.awt.*;
@@ -8,14 +9,19 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * QuizFrame - Main quiz interface
  * Displays questions one at a time with adaptive difficulty
+ * The next question is prefetched in the background while the user reads the feedback
  */
 public class QuizFrame extends Frame implements ActionListener {
     
     private QuizService quizService;
+    private AsyncQuizService asyncService;
+    private ProgressIndicator progress;
+    private CompletableFuture<Question> prefetched;
     private Question currentQuestion;
     private int questionNumber;
     
@@ -35,6 +41,7 @@ public class QuizFrame extends Frame implements ActionListener {
      */
     public QuizFrame(QuizService quizService) {
         this.quizService = quizService;
+        this.asyncService = quizService.async();
         this.questionNumber = 0;
         
         // Frame settings
@@ -115,6 +122,7 @@ public class QuizFrame extends Frame implements ActionListener {
         feedbackLabel.setBounds(50, 360, 600, 30);
         feedbackLabel.setFont(new Font("Arial", Font.BOLD, 14));
         add(feedbackLabel);
+        progress = new ProgressIndicator(this, feedbackLabel);
         
         // Next Button
         nextButton = new Button("Submit Answer");
@@ -139,17 +147,39 @@ public class QuizFrame extends Frame implements ActionListener {
             }
         });
         
-        // Load first question
-        loadNextQuestion();
-        
         setVisible(true);
+        
+        // Load first question
+        loadNextQuestion(asyncService.getNextQuestion());
+    }
+    
+    /**
+     * Show the next question once it has loaded; spinner only if it is not ready yet
+     * On failure the button is re-enabled to fetch the question again
+     */
+    private void loadNextQuestion(CompletableFuture<Question> next) {
+        nextButton.setEnabled(false);
+        if (!next.isDone()) {
+            progress.start("Loading question...");
+        }
+        next.thenAcceptAsync(question -> {
+            progress.stop();
+            displayQuestion(question);
+        }, EventQueue::invokeLater).exceptionallyAsync(error -> {
+            progress.stop();
+            prefetched = null;
+            nextButton.setLabel("Next Question →");
+            nextButton.setEnabled(true);
+            ErrorDialog.show(this, "Could not load the next question", error);
+            return null;
+        }, EventQueue::invokeLater);
     }
     
     /**
-     * Load next question from service
+     * Display a loaded question, or the results when none are left
      */
-    private void loadNextQuestion() {
-        currentQuestion = quizService.getNextQuestion();
+    private void displayQuestion(Question question) {
+        currentQuestion = question;
         
         if (currentQuestion == null) {
             // No more questions - show results
@@ -183,6 +213,9 @@ public class QuizFrame extends Frame implements ActionListener {
         feedbackLabel.setText("");
         nextButton.setLabel("Submit Answer");
         nextButton.setEnabled(true);
+        
+        // Time to answer (QuestionStats, AnswerLog) starts now, not when the prefetch completed
+        quizService.markQuestionShown();
     }
     
     /**
@@ -213,7 +246,7 @@ public class QuizFrame extends Frame implements ActionListener {
                 boolean isCorrect = currentQuestion.isCorrect(selectedOption);
                 
                 // Process answer (updates score and difficulty)
-                quizService.processAnswer(isCorrect);
+                quizService.processAnswer(isCorrect, selectedOption);
                 
                 // Show feedback
                 if (isCorrect) {
@@ -230,9 +263,15 @@ public class QuizFrame extends Frame implements ActionListener {
                 nextButton.setLabel("Next Question →");
                 scoreLabel.setText("Score: " + quizService.getScore());
                 
+                // Prefetch next question at the new difficulty while feedback is shown
+                prefetched = asyncService.getNextQuestion();
+                
+            } else if (nextButton.getLabel().equals("Retry Saving")) {
+                showResults();
+                
             } else {
-                // Load next question
-                loadNextQuestion();
+                // Load next question (again, if the prefetch failed)
+                loadNextQuestion(prefetched != null ? prefetched : asyncService.getNextQuestion());
             }
         }
     }
@@ -241,13 +280,22 @@ public class QuizFrame extends Frame implements ActionListener {
      * Show results screen
      */
     private void showResults() {
-        // Save result to database
-        quizService.saveResult();
-        
-        // Open result frame
-        new ResultFrame(quizService);
+        nextButton.setEnabled(false);
+        progress.start("Saving result...");
         
-        // Close quiz frame
-        dispose();
+        // Save result to database, then open result frame
+        asyncService.saveResult().thenAcceptAsync(saved -> {
+            progress.stop();
+            new ResultFrame(quizService);
+            
+            // Close quiz frame
+            dispose();
+        }, EventQueue::invokeLater).exceptionallyAsync(error -> {
+            progress.stop();
+            nextButton.setLabel("Retry Saving");
+            nextButton.setEnabled(true);
+            ErrorDialog.show(this, "Could not save your result", error);
+            return null;
+        }, EventQueue::invokeLater);
     }
 }
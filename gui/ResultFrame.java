@@ -192,6 +192,11 @@ public class ResultFrame extends Frame implements ActionListener {
             message = "💪 Don't Give Up!";
         }
         
+        int rank = quizService.getLeaderboardRank();
+        if (rank > 0) {
+            message += "  🏆 Leaderboard rank #" + rank;
+        }
+        
         Label messageLabel = new Label(message, Label.CENTER);
         messageLabel.setBounds(50, 460, 500, 25);
         messageLabel.setFont(new Font("Arial", Font.BOLD, 16));
@@ -1,5 +1,6 @@
 package gui;
 
+import service.AsyncQuizService;
 import service.QuizService;
 
 import java.awt.*;
@@ -15,10 +16,13 @@ import java.util.List;
 /**
  * TopicSelectionFrame - Allows user to choose quiz topics
  * User can select multiple topics or skip to attempt all topics
+ * Topics and questions are loaded in the background while a progress indicator runs
  */
 public class TopicSelectionFrame extends Frame implements ActionListener, ItemListener {
     
     private QuizService quizService;
+    private AsyncQuizService asyncService;
+    private ProgressIndicator progress;
     private List<Checkbox> topicCheckboxes;
     private Button proceedButton;
     private Button skipButton;
@@ -30,6 +34,7 @@ public class TopicSelectionFrame extends Frame implements ActionListener, ItemLi
      */
     public TopicSelectionFrame(QuizService quizService) {
         this.quizService = quizService;
+        this.asyncService = quizService.async();
         this.topicCheckboxes = new ArrayList<>();
         
         // Frame settings
@@ -54,31 +59,14 @@ public class TopicSelectionFrame extends Frame implements ActionListener, ItemLi
         instructionLabel.setForeground(new Color(80, 80, 80));
         add(instructionLabel);
         
-        // Get available topics from database
-        List<String> availableTopics = quizService.getAvailableTopics();
-        
-        // Create checkboxes for each topic
-        int yPosition = 120;
-        for (String topic : availableTopics) {
-            Checkbox cb = new Checkbox(topic);
-            cb.setBounds(150, yPosition, 200, 25);
-            cb.setFont(new Font("Arial", Font.PLAIN, 14));
-            cb.addItemListener(this);
-            topicCheckboxes.add(cb);
-            add(cb);
-            yPosition += 35;
-        }
-        
         // Selected count label
         selectedCountLabel = new Label("Selected: 0 topics", Label.CENTER);
-        selectedCountLabel.setBounds(50, yPosition + 10, 400, 25);
         selectedCountLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         selectedCountLabel.setForeground(new Color(0, 153, 76));
         add(selectedCountLabel);
         
-        // Proceed Button
+        // Proceed Button (enabled once topics are loaded)
         proceedButton = new Button("Proceed with Selected");
-        proceedButton.setBounds(100, yPosition + 50, 160, 35);
         proceedButton.setFont(new Font("Arial", Font.BOLD, 13));
         proceedButton.setBackground(new Color(0, 153, 76));
         proceedButton.setForeground(Color.WHITE);
@@ -87,7 +75,6 @@ public class TopicSelectionFrame extends Frame implements ActionListener, ItemLi
         
         // Skip Button
         skipButton = new Button("Skip (All Topics)");
-        skipButton.setBounds(270, yPosition + 50, 130, 35);
         skipButton.setFont(new Font("Arial", Font.BOLD, 13));
         skipButton.setBackground(new Color(255, 165, 0));
         skipButton.setForeground(Color.WHITE);
@@ -96,10 +83,13 @@ public class TopicSelectionFrame extends Frame implements ActionListener, ItemLi
         
         // Message Label
         messageLabel = new Label("", Label.CENTER);
-        messageLabel.setBounds(50, yPosition + 95, 400, 25);
         messageLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         messageLabel.setForeground(Color.RED);
         add(messageLabel);
+        progress = new ProgressIndicator(this, messageLabel);
+        
+        layoutControls(120);
+        setButtonsEnabled(false);
         
         // Window close handler
         addWindowListener(new WindowAdapter() {
@@ -109,6 +99,59 @@ public class TopicSelectionFrame extends Frame implements ActionListener, ItemLi
         });
         
         setVisible(true);
+        
+        // Get available topics from database without blocking the event thread
+        progress.start("Loading topics...");
+        asyncService.getAvailableTopics().thenAcceptAsync(this::showTopics, EventQueue::invokeLater)
+            .exceptionallyAsync(error -> {
+                // Skip (all topics) still works without the topic list
+                progress.stop();
+                skipButton.setEnabled(true);
+                messageLabel.setText("✗ Could not load topics. Check database connection.");
+                messageLabel.setForeground(Color.RED);
+                ErrorDialog.show(this, "Could not load topics", error);
+                return null;
+            }, EventQueue::invokeLater);
+    }
+    
+    /**
+     * Create checkboxes for each topic (runs on the event thread once topics arrive)
+     */
+    private void showTopics(List<String> availableTopics) {
+        progress.stop();
+        
+        int yPosition = 120;
+        for (String topic : availableTopics) {
+            Checkbox cb = new Checkbox(topic);
+            cb.setBounds(150, yPosition, 200, 25);
+            cb.setFont(new Font("Arial", Font.PLAIN, 14));
+            cb.addItemListener(this);
+            topicCheckboxes.add(cb);
+            add(cb);
+            yPosition += 35;
+        }
+        layoutControls(yPosition);
+        setButtonsEnabled(true);
+        
+        if (availableTopics.isEmpty()) {
+            messageLabel.setText("✗ No topics found! Check database connection.");
+            messageLabel.setForeground(Color.RED);
+        }
+    }
+    
+    /**
+     * Place count label, buttons and message below the topic list
+     */
+    private void layoutControls(int yPosition) {
+        selectedCountLabel.setBounds(50, yPosition + 10, 400, 25);
+        proceedButton.setBounds(100, yPosition + 50, 160, 35);
+        skipButton.setBounds(270, yPosition + 50, 130, 35);
+        messageLabel.setBounds(50, yPosition + 95, 400, 25);
+    }
+    
+    private void setButtonsEnabled(boolean enabled) {
+        proceedButton.setEnabled(enabled);
+        skipButton.setEnabled(enabled);
     }
     
     /**
@@ -164,25 +207,35 @@ public class TopicSelectionFrame extends Frame implements ActionListener, ItemLi
     }
     
     /**
-     * Load questions and start quiz
+     * Load questions in the background, then start quiz
      */
     private void startQuiz() {
-        messageLabel.setText("Loading questions...");
-        messageLabel.setForeground(new Color(0, 153, 76));
+        setButtonsEnabled(false);
+        progress.start("Loading questions...");
         
         // Load questions from database
-        boolean loaded = quizService.loadQuestions();
-        
-        if (!loaded) {
+        asyncService.loadQuestions().thenAcceptAsync(loaded -> {
+            progress.stop();
+            
+            if (!loaded) {
+                messageLabel.setText("✗ Error loading questions! Check database connection.");
+                messageLabel.setForeground(Color.RED);
+                setButtonsEnabled(true);
+                return;
+            }
+            
+            // Open Quiz Frame
+            new QuizFrame(quizService);
+            
+            // Close topic selection frame
+            dispose();
+        }, EventQueue::invokeLater).exceptionallyAsync(error -> {
+            progress.stop();
             messageLabel.setText("✗ Error loading questions! Check database connection.");
             messageLabel.setForeground(Color.RED);
-            return;
-        }
-        
-        // Open Quiz Frame
-        new QuizFrame(quizService);
-        
-        // Close topic selection frame
-        dispose();
+            setButtonsEnabled(true);
+            ErrorDialog.show(this, "Could not load questions", error);
+            return null;
+        }, EventQueue::invokeLater);
     }
 }
@@ -0,0 +1,143 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram - Lock-free, allocation-free latency histogram
+ * Log-linear buckets: values below 16 ns are exact, above that each power of two
+ * is split into 16 linear sub-buckets, so any recorded value is reported within ~6%.
+ * Covers the full positive long range in 960 counters (~7.5 KB).
+ *
+ * record() only touches atomics and never allocates, so it is safe on hot paths.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Record one latency in nanoseconds (negative values are clamped to 0)
+     */
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : nanos;
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since a System.nanoTime() start stamp
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalNanos.get() / count;
+    }
+
+    /**
+     * Value at the given percentile (0-100), as the midpoint of its bucket
+     */
+    public long getPercentileNanos(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        rank = Math.max(1, Math.min(rank, count));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(midpointOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Clear all counts (not atomic with respect to concurrent record calls)
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * One-line summary in microseconds
+     */
+    public String getSummary() {
+        return String.format("%s count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+            name, getCount(), getMeanNanos() / 1_000.0,
+            getPercentileNanos(50) / 1_000.0, getPercentileNanos(99) / 1_000.0,
+            getPercentileNanos(99.9) / 1_000.0, getMaxNanos() / 1_000.0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long midpointOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowerBoundOf(index) + width / 2;
+    }
+}
@@ -0,0 +1,120 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * MetricsRegistry - Process-wide registry of latency histograms, counters and gauges
+ * Rendered in the Prometheus text format for the /metrics endpoint or a periodic dump
+ *
+ * Lookups create metrics once; callers keep the returned object in a field so
+ * recording on hot paths is a plain atomic update with no map access or allocation.
+ * Series names may carry labels, e.g. quiz_questions_served_total{topic="Java"}.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dumper;
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Latency histogram (rendered in seconds), created on first use
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Monotonic counter, created on first use
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Register (or replace) a gauge sampled at render time
+     */
+    public void gauge(String name, DoubleSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Render every metric in the Prometheus text exposition format
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        for (LatencyHistogram h : new TreeMap<>(histograms).values()) {
+            String name = h.getName();
+            sb.append("# TYPE ").append(name).append(" summary\n");
+            for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+                sb.append(name).append("{quantile=\"").append(q).append("\"} ")
+                    .append(seconds(h.getPercentileNanos(q * 100))).append('\n');
+            }
+            sb.append(name).append("_max ").append(seconds(h.getMaxNanos())).append('\n');
+            sb.append(name).append("_count ").append(h.getCount()).append('\n');
+            sb.append(name).append("_sum ").append(seconds(h.getTotalNanos())).append('\n');
+        }
+
+        String lastBase = null;
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            lastBase = typeLine(sb, entry.getKey(), "counter", lastBase);
+            sb.append(entry.getKey()).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+
+        lastBase = null;
+        for (Map.Entry<String, DoubleSupplier> entry : new TreeMap<>(gauges).entrySet()) {
+            lastBase = typeLine(sb, entry.getKey(), "gauge", lastBase);
+            double value;
+            try {
+                value = entry.getValue().getAsDouble();
+            } catch (RuntimeException e) {
+                value = Double.NaN;
+            }
+            sb.append(entry.getKey()).append(' ').append(value).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Print render() to stdout every interval (0 or less does nothing)
+     */
+    public synchronized void startPeriodicDump(long intervalSeconds) {
+        if (intervalSeconds <= 0 || dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> System.out.println("📊 Metrics\n" + render()),
+            intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private static String typeLine(StringBuilder sb, String series, String type, String lastBase) {
+        int brace = series.indexOf('{');
+        String base = brace < 0 ? series : series.substring(0, brace);
+        if (!base.equals(lastBase)) {
+            sb.append("# TYPE ").append(base).append(' ').append(type).append('\n');
+        }
+        return base;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
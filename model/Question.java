@@ -3,6 +3,10 @@ package model;
 /**
  * Question - Data model representing a quiz question
  * Encapsulates all question attributes with proper getter/setter methods
+ *
+ * A Question is either standalone (fields set directly) or a flyweight view of one
+ * row of a QuestionStore, whose getters decode the row on access. Calling a setter
+ * on a view copies the row into the object first, so the shared store never changes.
  */
 public class Question {
     
@@ -16,6 +20,10 @@ public class Question {
     private int difficulty;
     private String topic;
     
+    // Set for views over a QuestionStore row; null once detached
+    private QuestionStore store;
+    private int row;
+    
     /**
      * Default constructor
      */
@@ -39,77 +47,94 @@ public class Question {
         this.topic = topic;
     }
     
+    /**
+     * View over a store row (see QuestionStore.get)
+     */
+    Question(QuestionStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+    
     // Getters and Setters
     
     public int getId() {
-        return id;
+        return store != null ? store.getId(row) : id;
     }
     
     public void setId(int id) {
+        detach();
         this.id = id;
     }
     
     public String getQuestion() {
-        return question;
+        return store != null ? store.getText(row, 0) : question;
     }
     
     public void setQuestion(String question) {
+        detach();
         this.question = question;
     }
     
     public String getOption1() {
-        return option1;
+        return store != null ? store.getText(row, 1) : option1;
     }
     
     public void setOption1(String option1) {
+        detach();
         this.option1 = option1;
     }
     
     public String getOption2() {
-        return option2;
+        return store != null ? store.getText(row, 2) : option2;
     }
     
     public void setOption2(String option2) {
+        detach();
         this.option2 = option2;
     }
     
     public String getOption3() {
-        return option3;
+        return store != null ? store.getText(row, 3) : option3;
     }
     
     public void setOption3(String option3) {
+        detach();
         this.option3 = option3;
     }
     
     public String getOption4() {
-        return option4;
+        return store != null ? store.getText(row, 4) : option4;
     }
     
     public void setOption4(String option4) {
+        detach();
         this.option4 = option4;
     }
     
     public int getCorrectOption() {
-        return correctOption;
+        return store != null ? store.getCorrectOption(row) : correctOption;
     }
     
     public void setCorrectOption(int correctOption) {
+        detach();
         this.correctOption = correctOption;
     }
     
     public int getDifficulty() {
-        return difficulty;
+        return store != null ? store.getDifficulty(row) : difficulty;
     }
     
     public void setDifficulty(int difficulty) {
+        detach();
         this.difficulty = difficulty;
     }
     
     public String getTopic() {
-        return topic;
+        return store != null ? store.getTopic(row) : topic;
     }
     
     public void setTopic(String topic) {
+        detach();
         this.topic = topic;
     }
     
@@ -118,10 +143,10 @@ public class Question {
      */
     public String getOption(int optionNumber) {
         switch (optionNumber) {
-            case 1: return option1;
-            case 2: return option2;
-            case 3: return option3;
-            case 4: return option4;
+            case 1: return getOption1();
+            case 2: return getOption2();
+            case 3: return getOption3();
+            case 4: return getOption4();
             default: return "";
         }
     }
@@ -130,14 +155,14 @@ public class Question {
      * Check if answer is correct
      */
     public boolean isCorrect(int selectedOption) {
-        return selectedOption == correctOption;
+        return selectedOption == getCorrectOption();
     }
     
     /**
      * Get difficulty as string
      */
     public String getDifficultyString() {
-        switch (difficulty) {
+        switch (getDifficulty()) {
             case 1: return "Easy";
             case 2: return "Medium";
             case 3: return "Hard";
@@ -145,13 +170,33 @@ public class Question {
         }
     }
     
+    /**
+     * Copy the store row into this object so it can be modified
+     */
+    private void detach() {
+        if (store == null) {
+            return;
+        }
+        QuestionStore source = store;
+        id = source.getId(row);
+        question = source.getText(row, 0);
+        option1 = source.getText(row, 1);
+        option2 = source.getText(row, 2);
+        option3 = source.getText(row, 3);
+        option4 = source.getText(row, 4);
+        correctOption = source.getCorrectOption(row);
+        difficulty = source.getDifficulty(row);
+        topic = source.getTopic(row);
+        store = null;
+    }
+    
     @Override
     public String toString() {
         return "Question{" +
-                "id=" + id +
-                ", question='" + question + '\'' +
-                ", difficulty=" + difficulty +
-                ", topic='" + topic + '\'' +
+                "id=" + getId() +
+                ", question='" + getQuestion() + '\'' +
+                ", difficulty=" + getDifficulty() +
+                ", topic='" + getTopic() + '\'' +
                 '}';
     }
 }
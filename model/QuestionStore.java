@@ -0,0 +1,501 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * QuestionStore - Compact, immutable columnar storage for a large question bank
+ * Replaces one Question object (plus six Strings) per row with a handful of shared arrays:
+ *
+ * - text: question and option texts as UTF-8 bytes in one byte array, located by offsets
+ * - topics: dictionary-encoded, one short per row into a small table of distinct names
+ * - difficulty and correct option: packed into one byte per row (4 bits each)
+ *
+ * get(row) returns a lightweight Question view that decodes fields on access.
+ * The columns are buffers, so a store can also be served straight from a
+ * memory-mapped snapshot file (writeSnapshot / mapSnapshot) without deserializing it.
+ * Difficulties and correct options outside 0-15 are stored as 0, which every caller
+ * already treats as "unknown" (bucket 0, never correct).
+ *
+ * A header-only store (Builder.headersOnly) keeps just id, topic and difficulty,
+ * about 7 bytes per row; the texts are fetched on demand (see QuestionBodyCache).
+ */
+public class QuestionStore {
+
+    /** Question text plus four options per row */
+    static final int TEXTS_PER_ROW = 5;
+
+    // Snapshot file format (big-endian): header, then 8-byte aligned sections
+    //   topic names (writeUTF each), ids int[rows], text offsets int[rows*5+1],
+    //   topic ids short[rows], packed byte[rows], null bitmap long[nullWords], text byte[textLength]
+    private static final int SNAPSHOT_MAGIC = 0x5155495A; // "QUIZ"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+
+    private static final int NIBBLE = 0x0F;
+    private static final int NULL_TOPIC = -1;
+
+    private final int size;
+    private final IntBuffer ids;
+    private final ByteBuffer text;
+    private final IntBuffer textOffsets;
+    private final BitSet nullTexts;
+    private final ShortBuffer topicIds;
+    private final String[] topicNames;
+    private final ByteBuffer packed;
+
+    private QuestionStore(int size, IntBuffer ids, ByteBuffer text, IntBuffer textOffsets, BitSet nullTexts,
+                          ShortBuffer topicIds, String[] topicNames, ByteBuffer packed) {
+        this.size = size;
+        this.ids = ids;
+        this.text = text;
+        this.textOffsets = textOffsets;
+        this.nullTexts = nullTexts;
+        this.topicIds = topicIds;
+        this.topicNames = topicNames;
+        this.packed = packed;
+    }
+
+    /**
+     * Copy a list of questions into a new store
+     */
+    public static QuestionStore of(List<Question> questions) {
+        Builder builder = new Builder(questions.size());
+        for (Question q : questions) {
+            builder.add(q);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Flyweight view of a row; cheap to create, holds no copies of the data
+     */
+    public Question get(int row) {
+        checkRow(row);
+        return new Question(this, row);
+    }
+
+    public int getId(int row) {
+        return ids.get(row);
+    }
+
+    /**
+     * True if the store holds question and option texts; false for a header-only store
+     */
+    public boolean hasBodies() {
+        return textOffsets != null;
+    }
+
+    /**
+     * Decode one text column: 0 = question, 1-4 = options
+     * @throws IllegalStateException if this is a header-only store
+     */
+    public String getText(int row, int field) {
+        if (textOffsets == null) {
+            throw new IllegalStateException("Header-only store has no question text");
+        }
+        int slot = row * TEXTS_PER_ROW + field;
+        if (nullTexts != null && nullTexts.get(slot)) {
+            return null;
+        }
+        int from = textOffsets.get(slot);
+        int length = textOffsets.get(slot + 1) - from;
+        if (text.hasArray()) {
+            return new String(text.array(), text.arrayOffset() + from, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        text.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getCorrectOption(int row) {
+        return packed.get(row) & NIBBLE;
+    }
+
+    public int getDifficulty(int row) {
+        return (packed.get(row) >>> 4) & NIBBLE;
+    }
+
+    /**
+     * Dictionary id of the row's topic, or -1 if it has none
+     */
+    public int getTopicId(int row) {
+        return topicIds.get(row);
+    }
+
+    public String getTopic(int row) {
+        int id = topicIds.get(row);
+        return id == NULL_TOPIC ? null : topicNames[id];
+    }
+
+    /**
+     * Distinct topic names, indexed by topic id
+     */
+    public List<String> getTopicNames() {
+        return Collections.unmodifiableList(Arrays.asList(topicNames));
+    }
+
+    /**
+     * True if the columns live in a memory-mapped snapshot file rather than on the heap
+     */
+    public boolean isMapped() {
+        return ids.isDirect();
+    }
+
+    /**
+     * Heap held by the store (headers included); mapped columns count as zero
+     */
+    public long getEstimatedBytes() {
+        long bytes = 64;
+        bytes += heapBytes(ids, 4);
+        bytes += text == null ? 0 : heapBytes(text, 1);
+        bytes += textOffsets == null ? 0 : heapBytes(textOffsets, 4);
+        bytes += nullTexts == null ? 0 : 32L + nullTexts.size() / 8;
+        bytes += heapBytes(topicIds, 2);
+        bytes += heapBytes(packed, 1);
+        for (String name : topicNames) {
+            bytes += 16L + 40L + name.length();
+        }
+        return bytes;
+    }
+
+    private static long heapBytes(Buffer buffer, int elementBytes) {
+        return buffer.isDirect() ? 0 : 16L + (long) elementBytes * buffer.capacity();
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+    }
+
+    private static byte pack(int difficulty, int correctOption) {
+        int d = difficulty >= 0 && difficulty <= NIBBLE ? difficulty : 0;
+        int c = correctOption >= 0 && correctOption <= NIBBLE ? correctOption : 0;
+        return (byte) (d << 4 | c);
+    }
+
+    // Snapshot files
+
+    /**
+     * Write the store to a versioned binary snapshot file
+     * Written to a temporary file, fsync'd and moved into place, so readers that
+     * still map the previous file keep working and never see a partial file.
+     * @throws IllegalStateException if this is a header-only store
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        if (!hasBodies()) {
+            throw new IllegalStateException("Header-only store cannot be written as a snapshot");
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long[] nullWords = nullTexts == null ? new long[0] : nullTexts.toLongArray();
+        int textLength = textOffsets.get(size * TEXTS_PER_ROW);
+
+        ByteArrayOutputStream topicBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(topicBytes)) {
+            for (String name : topicNames) {
+                out.writeUTF(name);
+            }
+        }
+
+        try (FileOutputStream stream = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(size);
+            out.writeInt(topicNames.length);
+            out.writeInt(textLength);
+            out.writeInt(nullWords.length);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(topicBytes.size());
+            out.writeInt(0);
+
+            topicBytes.writeTo(out);
+            pad(out);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(ids.get(i));
+            }
+            pad(out);
+            for (int i = 0; i <= size * TEXTS_PER_ROW; i++) {
+                out.writeInt(textOffsets.get(i));
+            }
+            pad(out);
+            for (int i = 0; i < size; i++) {
+                out.writeShort(topicIds.get(i));
+            }
+            pad(out);
+            for (int i = 0; i < size; i++) {
+                out.writeByte(packed.get(i));
+            }
+            pad(out);
+            for (long word : nullWords) {
+                out.writeLong(word);
+            }
+            pad(out);
+            if (text.hasArray()) {
+                out.write(text.array(), text.arrayOffset(), textLength);
+            } else {
+                byte[] chunk = new byte[1 << 16];
+                for (int from = 0; from < textLength; from += chunk.length) {
+                    int length = Math.min(chunk.length, textLength - from);
+                    text.get(from, chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-map a snapshot file; rows are read straight from the mapping
+     * Only the header and the small topic dictionary are decoded up front.
+     */
+    public static QuestionStore mapSnapshot(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a question snapshot: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + file);
+        }
+        int rows = buffer.getInt(8);
+        int topicCount = buffer.getInt(12);
+        int textLength = buffer.getInt(16);
+        int nullWordCount = buffer.getInt(20);
+        int topicBytes = buffer.getInt(32);
+
+        long topicsAt = HEADER_BYTES;
+        long idsAt = align(topicsAt + topicBytes);
+        long offsetsAt = align(idsAt + 4L * rows);
+        long topicIdsAt = align(offsetsAt + 4L * (rows * (long) TEXTS_PER_ROW + 1));
+        long packedAt = align(topicIdsAt + 2L * rows);
+        long nullsAt = align(packedAt + rows);
+        long textAt = align(nullsAt + 8L * nullWordCount);
+        if (rows < 0 || topicCount < 0 || textLength < 0 || nullWordCount < 0 || topicBytes < 0
+                || textAt + textLength != buffer.capacity()) {
+            throw new IOException("Corrupt snapshot (size mismatch): " + file);
+        }
+
+        String[] names = new String[topicCount];
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                bytes(buffer, (int) topicsAt, topicBytes)))) {
+            for (int i = 0; i < topicCount; i++) {
+                names[i] = in.readUTF();
+            }
+        }
+
+        BitSet nulls = null;
+        if (nullWordCount > 0) {
+            nulls = BitSet.valueOf(buffer.slice((int) nullsAt, 8 * nullWordCount).asLongBuffer());
+        }
+
+        return new QuestionStore(rows,
+            buffer.slice((int) idsAt, 4 * rows).asIntBuffer(),
+            buffer.slice((int) textAt, textLength),
+            buffer.slice((int) offsetsAt, 4 * (rows * TEXTS_PER_ROW + 1)).asIntBuffer(),
+            nulls,
+            buffer.slice((int) topicIdsAt, 2 * rows).asShortBuffer(),
+            names,
+            buffer.slice((int) packedAt, rows));
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void pad(DataOutputStream out) throws IOException {
+        while (out.size() % 8 != 0) {
+            out.writeByte(0);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    /**
+     * Builder - Appends rows into growable columns; build() trims them to size
+     * Rows can be added straight from a ResultSet without creating Question objects.
+     */
+    public static class Builder {
+
+        private final boolean bodies;
+        private int size;
+        private int[] ids;
+        private byte[] text;
+        private int textLength;
+        private int[] textOffsets;
+        private BitSet nullTexts;
+        private short[] topicIds;
+        private byte[] packed;
+        private final Map<String, Integer> topicDictionary = new HashMap<>();
+        private String[] topicNames = new String[8];
+
+        public Builder() {
+            this(1024);
+        }
+
+        /**
+         * @param expectedRows initial capacity; the columns grow as needed
+         */
+        public Builder(int expectedRows) {
+            this(expectedRows, true);
+        }
+
+        private Builder(int expectedRows, boolean bodies) {
+            int rows = Math.max(16, expectedRows);
+            this.bodies = bodies;
+            this.ids = new int[rows];
+            if (bodies) {
+                this.text = new byte[rows * 64];
+                this.textOffsets = new int[rows * TEXTS_PER_ROW + 1];
+            }
+            this.topicIds = new short[rows];
+            this.packed = new byte[rows];
+        }
+
+        /**
+         * Builder for a header-only store: texts and correct options passed to add() are dropped
+         */
+        public static Builder headersOnly(int expectedRows) {
+            return new Builder(expectedRows, false);
+        }
+
+        public Builder add(Question q) {
+            return add(q.getId(), q.getQuestion(), q.getOption1(), q.getOption2(), q.getOption3(),
+                q.getOption4(), q.getCorrectOption(), q.getDifficulty(), q.getTopic());
+        }
+
+        public Builder add(int id, String question, String option1, String option2, String option3,
+                           String option4, int correctOption, int difficulty, String topic) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                if (bodies) {
+                    textOffsets = Arrays.copyOf(textOffsets, capacity * TEXTS_PER_ROW + 1);
+                }
+                topicIds = Arrays.copyOf(topicIds, capacity);
+                packed = Arrays.copyOf(packed, capacity);
+            }
+
+            if (bodies) {
+                int slot = size * TEXTS_PER_ROW;
+                appendText(slot, question);
+                appendText(slot + 1, option1);
+                appendText(slot + 2, option2);
+                appendText(slot + 3, option3);
+                appendText(slot + 4, option4);
+            }
+
+            ids[size] = id;
+            topicIds[size] = (short) topicId(topic);
+            packed[size] = pack(difficulty, bodies ? correctOption : 0);
+            size++;
+            return this;
+        }
+
+        /**
+         * Append a row with no texts (header-only stores)
+         */
+        public Builder addHeader(int id, int difficulty, String topic) {
+            return add(id, null, null, null, null, null, 0, difficulty, topic);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public QuestionStore build() {
+            return new QuestionStore(size,
+                IntBuffer.wrap(Arrays.copyOf(ids, size)),
+                bodies ? ByteBuffer.wrap(Arrays.copyOf(text, textLength)) : null,
+                bodies ? IntBuffer.wrap(Arrays.copyOf(textOffsets, size * TEXTS_PER_ROW + 1)) : null,
+                nullTexts,
+                ShortBuffer.wrap(Arrays.copyOf(topicIds, size)),
+                Arrays.copyOf(topicNames, topicDictionary.size()),
+                ByteBuffer.wrap(Arrays.copyOf(packed, size)));
+        }
+
+        private void appendText(int slot, String value) {
+            textOffsets[slot] = textLength;
+            if (value == null) {
+                if (nullTexts == null) {
+                    nullTexts = new BitSet();
+                }
+                nullTexts.set(slot);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if ((long) textLength + bytes.length > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Question text exceeds 2 GB");
+                }
+                if (textLength + bytes.length > text.length) {
+                    long grown = Math.max((long) text.length * 2, (long) textLength + bytes.length);
+                    text = Arrays.copyOf(text, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+                }
+                System.arraycopy(bytes, 0, text, textLength, bytes.length);
+                textLength += bytes.length;
+            }
+            textOffsets[slot + 1] = textLength;
+        }
+
+        private int topicId(String topic) {
+            if (topic == null) {
+                return NULL_TOPIC;
+            }
+            Integer id = topicDictionary.get(topic);
+            if (id == null) {
+                id = topicDictionary.size();
+                if (id > Short.MAX_VALUE) {
+                    throw new IllegalStateException("More than " + Short.MAX_VALUE + " distinct topics");
+                }
+                if (id == topicNames.length) {
+                    topicNames = Arrays.copyOf(topicNames, id * 2);
+                }
+                topicNames[id] = topic;
+                topicDictionary.put(topic, id);
+            }
+            return id;
+        }
+    }
+}
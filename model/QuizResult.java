@@ -0,0 +1,88 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QuizResult - Data model for one completed quiz attempt (a row in the users table)
+ */
+public class QuizResult {
+    
+    /** Topic column value for a quiz over every topic */
+    public static final String ALL_TOPICS = "All Topics";
+    
+    private final String username;
+    private final int score;
+    private final String topic;
+    private final int correctAnswers;
+    private final int wrongAnswers;
+    private final int maxDifficultyReached;
+    
+    /**
+     * Parameterized constructor
+     */
+    public QuizResult(String username, int score, String topic, int correctAnswers,
+                      int wrongAnswers, int maxDifficultyReached) {
+        this.username = username;
+        this.score = score;
+        this.topic = topic;
+        this.correctAnswers = correctAnswers;
+        this.wrongAnswers = wrongAnswers;
+        this.maxDifficultyReached = maxDifficultyReached;
+    }
+    
+    // Getters
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public String getTopic() {
+        return topic;
+    }
+    
+    public int getCorrectAnswers() {
+        return correctAnswers;
+    }
+    
+    public int getWrongAnswers() {
+        return wrongAnswers;
+    }
+    
+    public int getMaxDifficultyReached() {
+        return maxDifficultyReached;
+    }
+    
+    /**
+     * Individual topics of the topic column ("A, B"); empty for an all-topics quiz
+     */
+    public List<String> getTopicNames() {
+        if (topic == null || topic.isEmpty() || topic.equals(ALL_TOPICS)) {
+            return Collections.emptyList();
+        }
+        List<String> topics = new ArrayList<>();
+        for (String name : topic.split(",")) {
+            if (!name.isBlank()) {
+                topics.add(name.trim());
+            }
+        }
+        return topics;
+    }
+    
+    @Override
+    public String toString() {
+        return "QuizResult{" +
+                "username='" + username + '\'' +
+                ", score=" + score +
+                ", topic='" + topic + '\'' +
+                ", correct=" + correctAnswers +
+                ", wrong=" + wrongAnswers +
+                ", maxDifficulty=" + maxDifficultyReached +
+                '}';
+    }
+}
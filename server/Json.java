@@ -0,0 +1,100 @@
+package server;
+
+import java.util.Collection;
+
+/**
+ * Json - Minimal JSON writer for API responses
+ * Builds a single object; nested arrays are limited to strings and numbers
+ */
+public class Json {
+
+    private final StringBuilder sb = new StringBuilder(128).append('{');
+    private boolean first = true;
+
+    public Json put(String key, String value) {
+        key(key);
+        if (value == null) {
+            sb.append("null");
+        } else {
+            quote(value);
+        }
+        return this;
+    }
+
+    public Json put(String key, long value) {
+        key(key);
+        sb.append(value);
+        return this;
+    }
+
+    public Json put(String key, double value) {
+        key(key);
+        sb.append(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    public Json put(String key, boolean value) {
+        key(key);
+        sb.append(value);
+        return this;
+    }
+
+    public Json put(String key, Collection<String> values) {
+        key(key);
+        sb.append('[');
+        boolean firstValue = true;
+        for (String value : values) {
+            if (!firstValue) {
+                sb.append(',');
+            }
+            quote(value);
+            firstValue = false;
+        }
+        sb.append(']');
+        return this;
+    }
+
+    /**
+     * Embed an already-serialized JSON value
+     */
+    public Json putRaw(String key, String json) {
+        key(key);
+        sb.append(json);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb + "}";
+    }
+
+    private void key(String key) {
+        if (!first) {
+            sb.append(',');
+        }
+        first = false;
+        quote(key);
+        sb.append(':');
+    }
+
+    private void quote(String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
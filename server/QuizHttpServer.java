@@ -0,0 +1,470 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.MetricsRegistry;
+import model.Question;
+import service.AnalyticsRollup;
+import service.Leaderboard;
+import service.QuizEngine;
+import service.QuizSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuizHttpServer - Headless JSON API over QuizEngine
+ * Uses the JDK's built-in HTTP server with one virtual thread per request
+ * (falls back to a bounded platform thread pool on JDKs without virtual threads)
+ *
+ * Endpoints (parameters may be sent as query string or form body):
+ *   GET  /api/topics                    list topics
+ *   POST /api/sessions                  start session (username, topics=A,B)
+ *   GET  /api/sessions/{id}/question    next question (the same one again until it is answered)
+ *   POST /api/sessions/{id}/answer      submit answer (option=1-4)
+ *   POST /api/sessions/{id}/result      save and return final result, ends session
+ *   GET  /api/leaderboard               top results (topic=, limit=)
+ *   GET  /api/leaderboard/rank          rank of a user (username=, topic=)
+ *   GET  /api/analytics/users/{name}    user totals plus topic-wise history
+ *   GET  /api/analytics/topics[/{name}] per-topic totals
+ *   GET  /metrics                       latency histograms, counters and gauges
+ */
+public class QuizHttpServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int FALLBACK_THREADS = 256;
+    private static final int BACKLOG = 1024;
+    private static final long SESSION_IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+
+    private final QuizEngine engine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService reaper;
+    private final Map<Long, QuizSession> sessions = new ConcurrentHashMap<>();
+
+    public QuizHttpServer(QuizEngine engine, int port) throws IOException {
+        this.engine = engine;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = newRequestExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext("/api/", this::handle);
+        this.server.createContext("/metrics", this::handleMetrics);
+        MetricsRegistry.getInstance().gauge("quiz_http_sessions", sessions::size);
+
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Virtual-thread-per-request executor when the JDK supports it
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("⚠ Virtual threads unavailable, using " + FALLBACK_THREADS + " request threads");
+            return Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+    }
+
+    public void start() {
+        server.start();
+        reaper.scheduleWithFixedDelay(this::reapIdleSessions, 1, 1, TimeUnit.MINUTES);
+        System.out.println("✓ Quiz API listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        reaper.shutdownNow();
+        executor.shutdown();
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * GET /metrics - Prometheus text format
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            byte[] bytes = MetricsRegistry.getInstance().render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Route /api/... requests
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // path[0] = "", path[1] = "api"
+
+            if (path.length == 3 && path[2].equals("topics")) {
+                requireMethod(method, "GET");
+                send(exchange, 200, new Json().put("topics", engine.getAvailableTopics()).toString());
+
+            } else if (path.length >= 3 && path.length <= 4 && path[2].equals("leaderboard")) {
+                requireMethod(method, "GET");
+                leaderboard(exchange, path.length == 4 ? path[3] : "");
+
+            } else if (path.length >= 4 && path.length <= 5 && path[2].equals("analytics")) {
+                requireMethod(method, "GET");
+                analytics(exchange, path[3], path.length == 5 ? path[4] : null);
+
+            } else if (path.length == 3 && path[2].equals("sessions")) {
+                requireMethod(method, "POST");
+                startSession(exchange);
+
+            } else if (path.length == 5 && path[2].equals("sessions")) {
+                QuizSession session = findSession(path[3]);
+                session.touch();
+                switch (path[4]) {
+                    case "question":
+                        requireMethod(method, "GET");
+                        nextQuestion(exchange, session);
+                        break;
+                    case "answer":
+                        requireMethod(method, "POST");
+                        submitAnswer(exchange, session);
+                        break;
+                    case "result":
+                        requireMethod(method, "POST");
+                        finish(exchange, session);
+                        break;
+                    default:
+                        throw new ApiException(404, "Unknown endpoint");
+                }
+
+            } else {
+                throw new ApiException(404, "Unknown endpoint");
+            }
+
+        } catch (ApiException e) {
+            send(exchange, e.status, new Json().put("error", e.getMessage()).toString());
+        } catch (SQLException e) {
+            System.err.println("✗ Database error serving " + exchange.getRequestURI() + ": " + e.getMessage());
+            send(exchange, 503, new Json().put("error", "Database unavailable").toString());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, new Json().put("error", "Internal error").toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void startSession(HttpExchange exchange) throws IOException, SQLException, ApiException {
+        Map<String, String> params = readParams(exchange);
+        String username = params.getOrDefault("username", "").trim();
+        if (username.length() < 2) {
+            throw new ApiException(400, "Name must be at least 2 characters");
+        }
+
+        List<String> topics = new ArrayList<>();
+        String topicParam = params.get("topics");
+        if (topicParam != null && !topicParam.isBlank()) {
+            for (String topic : topicParam.split(",")) {
+                if (!topic.isBlank()) {
+                    topics.add(topic.trim());
+                }
+            }
+        }
+
+        QuizSession session = engine.startSession(username, topics);
+        if (session.getRemainingQuestions() == 0) {
+            engine.endSession(session);
+            throw new ApiException(404, "No questions for the selected topics");
+        }
+        sessions.put(session.getId(), session);
+
+        send(exchange, 201, new Json()
+            .put("sessionId", session.getId())
+            .put("username", session.getUsername())
+            .put("topics", session.getTopicsAttempted())
+            .put("questions", session.getRemainingQuestions())
+            .toString());
+    }
+
+    private void nextQuestion(HttpExchange exchange, QuizSession session)
+            throws IOException, SQLException, ApiException {
+        Question question = engine.currentOrNextQuestion(session);
+        if (question == null) {
+            throw new ApiException(410, "No more questions");
+        }
+
+        send(exchange, 200, new Json()
+            .put("number", session.getTotalQuestions() + 1)
+            .put("id", question.getId())
+            .put("question", question.getQuestion())
+            .put("options", Arrays.asList(question.getOption1(), question.getOption2(),
+                question.getOption3(), question.getOption4()))
+            .put("difficulty", question.getDifficulty())
+            .put("topic", question.getTopic())
+            .put("remaining", session.getRemainingQuestions())
+            .toString());
+    }
+
+    private void submitAnswer(HttpExchange exchange, QuizSession session) throws IOException, ApiException {
+        Map<String, String> params = readParams(exchange);
+        int option;
+        try {
+            option = Integer.parseInt(params.getOrDefault("option", ""));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "option must be 1-4");
+        }
+        if (option < 1 || option > 4) {
+            throw new ApiException(400, "option must be 1-4");
+        }
+
+        Question question = session.getCurrentQuestion();
+        boolean correct;
+        try {
+            correct = engine.submitAnswer(session, option);
+        } catch (IllegalStateException e) {
+            throw new ApiException(409, e.getMessage());
+        }
+
+        Json json = new Json()
+            .put("correct", correct)
+            .put("score", session.getScore())
+            .put("difficulty", session.getCurrentDifficulty());
+        if (question != null) {
+            json.put("correctOption", question.getCorrectOption());
+        }
+        send(exchange, 200, json.toString());
+    }
+
+    private void finish(HttpExchange exchange, QuizSession session) throws IOException {
+        // Remove first so a repeated call cannot save the result twice
+        boolean saved = sessions.remove(session.getId(), session) && engine.saveResult(session);
+        int total = session.getTotalQuestions();
+
+        send(exchange, 200, new Json()
+            .put("username", session.getUsername())
+            .put("topics", session.getTopicsAttempted())
+            .put("score", session.getScore())
+            .put("correct", session.getCorrectAnswers())
+            .put("wrong", session.getWrongAnswers())
+            .put("total", total)
+            .put("accuracy", total == 0 ? 0.0 : session.getCorrectAnswers() * 100.0 / total)
+            .put("maxDifficulty", session.getMaxDifficultyReached())
+            .put("saved", saved)
+            .toString());
+    }
+
+    private void leaderboard(HttpExchange exchange, String view) throws IOException, ApiException {
+        Map<String, String> params = readParams(exchange);
+        String topic = params.getOrDefault("topic", Leaderboard.GLOBAL);
+        Leaderboard leaderboard = Leaderboard.getInstance();
+
+        if (view.equals("rank")) {
+            String username = params.getOrDefault("username", "");
+            int rank = leaderboard.getRank(topic, username);
+            send(exchange, 200, new Json()
+                .put("username", username)
+                .put("topic", topic)
+                .put("rank", rank)
+                .put("ranked", rank > 0)
+                .toString());
+            return;
+        }
+        if (!view.isEmpty()) {
+            throw new ApiException(404, "Unknown endpoint");
+        }
+
+        int limit;
+        try {
+            limit = Integer.parseInt(params.getOrDefault("limit", "10"));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "limit must be a number");
+        }
+
+        StringBuilder entries = new StringBuilder("[");
+        int rank = 0;
+        for (Leaderboard.Entry entry : leaderboard.getTop(topic, limit)) {
+            if (rank > 0) {
+                entries.append(',');
+            }
+            entries.append(new Json()
+                .put("rank", ++rank)
+                .put("username", entry.getUsername())
+                .put("score", entry.getScore())
+                .put("topic", entry.getTopic())
+                .put("correct", entry.getCorrectAnswers())
+                .put("wrong", entry.getWrongAnswers())
+                .put("maxDifficulty", entry.getMaxDifficultyReached()));
+        }
+        send(exchange, 200, new Json()
+            .put("topic", topic)
+            .putRaw("entries", entries.append(']').toString())
+            .toString());
+    }
+
+    private void analytics(HttpExchange exchange, String kind, String name) throws IOException, ApiException {
+        AnalyticsRollup analytics = AnalyticsRollup.getInstance();
+
+        if (kind.equals("users") && name != null) {
+            AnalyticsRollup.Rollup user = analytics.getUser(name);
+            if (user == null) {
+                throw new ApiException(404, "No results for user");
+            }
+            send(exchange, 200, rollupJson(user)
+                .putRaw("topics", rollupArray(analytics.getUserTopics(name)))
+                .toString());
+
+        } else if (kind.equals("topics") && name != null) {
+            AnalyticsRollup.Rollup topic = analytics.getTopic(name);
+            if (topic == null) {
+                throw new ApiException(404, "No results for topic");
+            }
+            send(exchange, 200, rollupJson(topic).toString());
+
+        } else if (kind.equals("topics")) {
+            send(exchange, 200, new Json()
+                .putRaw("topics", rollupArray(analytics.getTopics()))
+                .toString());
+
+        } else {
+            throw new ApiException(404, "Unknown endpoint");
+        }
+    }
+
+    private static Json rollupJson(AnalyticsRollup.Rollup rollup) {
+        return new Json()
+            .put("name", rollup.getKey())
+            .put("attempts", rollup.getAttempts())
+            .put("correct", rollup.getCorrectAnswers())
+            .put("wrong", rollup.getWrongAnswers())
+            .put("accuracy", rollup.getAccuracy())
+            .put("averageScore", rollup.getAverageScore())
+            .put("bestScore", rollup.getBestScore())
+            .put("maxDifficulty", rollup.getMaxDifficultyReached());
+    }
+
+    private static String rollupArray(List<AnalyticsRollup.Rollup> rollups) {
+        StringBuilder sb = new StringBuilder("[");
+        for (AnalyticsRollup.Rollup rollup : rollups) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(rollupJson(rollup));
+        }
+        return sb.append(']').toString();
+    }
+
+    private QuizSession findSession(String id) throws ApiException {
+        QuizSession session = null;
+        try {
+            session = sessions.get(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            // fall through to 404
+        }
+        if (session == null) {
+            throw new ApiException(404, "Unknown session");
+        }
+        return session;
+    }
+
+    private void reapIdleSessions() {
+        long cutoff = System.currentTimeMillis() - SESSION_IDLE_TIMEOUT_MS;
+        for (QuizSession session : sessions.values()) {
+            if (session.getLastActivityMillis() < cutoff && sessions.remove(session.getId(), session)) {
+                engine.endSession(session);
+            }
+        }
+    }
+
+    // HTTP helpers
+
+    private static void requireMethod(String actual, String expected) throws ApiException {
+        if (!actual.equalsIgnoreCase(expected)) {
+            throw new ApiException(405, "Use " + expected);
+        }
+    }
+
+    /**
+     * Query string plus application/x-www-form-urlencoded body
+     */
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException, ApiException {
+        Map<String, String> params = new HashMap<>();
+        parseInto(exchange.getRequestURI().getRawQuery(), params);
+
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(64 * 1024);
+            if (body.length > 0) {
+                parseInto(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseInto(String encoded, Map<String, String> params) throws ApiException {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            try {
+                params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                // Malformed percent-encoding such as "%zz" or a trailing "%"
+                throw new ApiException(400, "Malformed parameter encoding");
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * ApiException - Error mapped to an HTTP status and JSON error body
+     */
+    private static class ApiException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
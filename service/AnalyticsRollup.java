@@ -0,0 +1,265 @@
+package service;
+
+import db.DatabaseConnection;
+import model.QuizResult;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AnalyticsRollup - Materialized per-user, per-topic and per-user-topic aggregates
+ * (attempts, answers, accuracy, best score, max difficulty) kept in memory
+ *
+ * Rollups are updated incrementally by QuizEngine.saveResult and filled at startup
+ * by a backfill that streams the users table in keyset-paginated chunks
+ * (WHERE id > ? ORDER BY id LIMIT n), so no report ever aggregates raw history.
+ * A quiz over several topics counts toward each of them; an all-topics quiz
+ * counts toward the user only.
+ */
+public class AnalyticsRollup {
+
+    public static final int BACKFILL_CHUNK = 1_000;
+
+    private static final AnalyticsRollup INSTANCE = new AnalyticsRollup();
+
+    private final Map<String, Rollup> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Rollup> byTopic = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Rollup>> byUserTopic = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong backfilled = new AtomicLong();
+    private volatile boolean backfillComplete;
+    private volatile long lastBackfillMillis;
+
+    /**
+     * Shared rollups used by QuizEngine
+     */
+    public static AnalyticsRollup getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Fold one saved result into the user, topic and user-topic rollups
+     * A result without a username only counts towards its topics.
+     */
+    public void record(QuizResult result) {
+        String username = result.getUsername();
+        if (username != null) {
+            byUser.computeIfAbsent(username, u -> new Rollup(u)).add(result);
+        }
+        for (String topic : result.getTopicNames()) {
+            byTopic.computeIfAbsent(topic, t -> new Rollup(t)).add(result);
+            if (username != null) {
+                byUserTopic.computeIfAbsent(username, u -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(topic, t -> new Rollup(t)).add(result);
+            }
+        }
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * @return the user's overall rollup, or null if the user has no saved results
+     */
+    public Rollup getUser(String username) {
+        return username == null ? null : byUser.get(username);
+    }
+
+    /**
+     * @return the topic's rollup across all users, or null if nobody attempted it
+     */
+    public Rollup getTopic(String topic) {
+        return byTopic.get(topic);
+    }
+
+    /**
+     * Topic-wise history of one user, sorted by topic
+     */
+    public List<Rollup> getUserTopics(String username) {
+        Map<String, Rollup> topics = username == null ? null : byUserTopic.get(username);
+        return topics == null ? Collections.emptyList() : sorted(topics);
+    }
+
+    /**
+     * Every topic rollup, sorted by topic
+     */
+    public List<Rollup> getTopics() {
+        return sorted(byTopic);
+    }
+
+    private static List<Rollup> sorted(Map<String, Rollup> rollups) {
+        List<Rollup> list = new ArrayList<>(rollups.values());
+        list.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+        return list;
+    }
+
+    /**
+     * Start the backfill on a background thread
+     * The high-water id is read first, on the caller's thread: rows above it were
+     * saved by this process and are already counted live, so the backfill skips them.
+     * Results spilled by an earlier run are replayed before that, so they fall below
+     * the high-water id; any the database still refuses are recorded when the result
+     * writer replays them later.
+     */
+    public void startBackfill() throws SQLException {
+        long highWater = ResultWriter.getInstance().replayThenMark(() -> {
+            try (Connection connection = DatabaseConnection.getConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MAX(id) FROM users")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }, this::record);
+
+        Thread worker = new Thread(() -> {
+            try {
+                backfill(highWater);
+            } catch (SQLException e) {
+                System.err.println("✗ Analytics backfill failed after " + backfilled.get() + " results: "
+                    + e.getMessage());
+            }
+        }, "analytics-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stream users rows with id <= highWater in keyset-paginated chunks
+     * Each chunk borrows a connection only for its own query, so a long backfill
+     * never pins a pool connection or holds a long-running cursor.
+     */
+    public void backfill(long highWater) throws SQLException {
+        long start = System.nanoTime();
+        String query = "SELECT id, username, score, topic, correct_answers, wrong_answers, max_difficulty_reached"
+            + " FROM users WHERE id > ? AND id <= ? ORDER BY id LIMIT " + BACKFILL_CHUNK;
+
+        long lastId = 0;
+        int rows;
+        do {
+            rows = 0;
+            try (Connection connection = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(query)) {
+                stmt.setLong(1, lastId);
+                stmt.setLong(2, highWater);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong("id");
+                        record(new QuizResult(
+                            rs.getString("username"),
+                            rs.getInt("score"),
+                            rs.getString("topic"),
+                            rs.getInt("correct_answers"),
+                            rs.getInt("wrong_answers"),
+                            rs.getInt("max_difficulty_reached")));
+                        rows++;
+                    }
+                }
+            }
+            backfilled.addAndGet(rows);
+        } while (rows == BACKFILL_CHUNK);
+
+        backfillComplete = true;
+        lastBackfillMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("✓ Analytics backfilled " + backfilled.get() + " results in "
+            + lastBackfillMillis + " ms");
+    }
+
+    // Statistics
+
+    public int getUserCount() {
+        return byUser.size();
+    }
+
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    public long getBackfilledCount() {
+        return backfilled.get();
+    }
+
+    public boolean isBackfillComplete() {
+        return backfillComplete;
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("analytics users=%d topics=%d recorded=%d backfilled=%d complete=%s backfill=%dms",
+            getUserCount(), byTopic.size(), getRecordedCount(), getBackfilledCount(),
+            backfillComplete, lastBackfillMillis);
+    }
+
+    /**
+     * Rollup - Running totals for one user, topic or user-topic pair
+     */
+    public static final class Rollup {
+
+        private final String key;
+        private long attempts;
+        private long correctAnswers;
+        private long wrongAnswers;
+        private long totalScore;
+        private int bestScore;
+        private int maxDifficultyReached;
+
+        Rollup(String key) {
+            this.key = key;
+        }
+
+        synchronized void add(QuizResult result) {
+            attempts++;
+            correctAnswers += result.getCorrectAnswers();
+            wrongAnswers += result.getWrongAnswers();
+            totalScore += result.getScore();
+            bestScore = attempts == 1 ? result.getScore() : Math.max(bestScore, result.getScore());
+            maxDifficultyReached = Math.max(maxDifficultyReached, result.getMaxDifficultyReached());
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public synchronized long getAttempts() {
+            return attempts;
+        }
+
+        public synchronized long getCorrectAnswers() {
+            return correctAnswers;
+        }
+
+        public synchronized long getWrongAnswers() {
+            return wrongAnswers;
+        }
+
+        /**
+         * Share of answered questions that were correct, in percent
+         */
+        public synchronized double getAccuracy() {
+            long answered = correctAnswers + wrongAnswers;
+            return answered == 0 ? 0 : correctAnswers * 100.0 / answered;
+        }
+
+        public synchronized double getAverageScore() {
+            return attempts == 0 ? 0 : (double) totalScore / attempts;
+        }
+
+        public synchronized int getBestScore() {
+            return bestScore;
+        }
+
+        public synchronized int getMaxDifficultyReached() {
+            return maxDifficultyReached;
+        }
+    }
+}
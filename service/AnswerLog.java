@@ -0,0 +1,759 @@
+package service;
+
+import db.DatabaseConnection;
+import db.ShardMap;
+import metrics.MetricsRegistry;
+import model.Question;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * AnswerLog - Append-only binary log of every served question and submitted answer
+ * Records are 32 bytes, little-endian, in memory-mapped segment files
+ * (answers-0000000001.log, ...) that are created at full size behind a 4 KB header. The
+ * header names the shards in the order of the writer's ShardMap, so records keep their
+ * shard when shards are later added, renamed or removed:
+ *
+ *   0  int   header: type | selected option << 8 | correct << 16 | difficulty << 24
+ *   4  int   shard: index into the segment's shard names (0 without a shard map)
+ *   8  int   question id
+ *   12 int   milliseconds from serving to answer (0 for served records)
+ *   16 long  session id
+ *   24 long  timestamp, nanoseconds since the epoch
+ *
+ * An append reserves a slot with one atomic increment, fills it with absolute puts into
+ * the mapping and publishes it by writing the header last with release semantics; it
+ * allocates nothing and takes no lock except when it rolls to a new segment. Readers
+ * tail the files concurrently: a zero header is a slot not yet published. Each process
+ * start begins a new segment, so a crash leaves at most a few unpublished slots behind.
+ *
+ * Mapped pages survive a process crash; a background thread forces them to disk every
+ * -Dquiz.answerlog.syncMillis (default 1000) to bound the loss on power failure.
+ * Configure the directory with -Dquiz.answerlog.dir (default answer-log, empty disables).
+ *
+ * Segments are sparse files, so a short run only uses the disk it writes. The oldest
+ * segments beyond -Dquiz.answerlog.maxSegments (default 64, about 2 GB; 0 keeps all)
+ * are deleted whenever a new segment is created.
+ */
+public class AnswerLog {
+
+    public static final String DEFAULT_DIR = "answer-log";
+    public static final String LOG_DIR = System.getProperty("quiz.answerlog.dir", DEFAULT_DIR);
+    public static final int DEFAULT_RECORDS_PER_SEGMENT =
+        Integer.getInteger("quiz.answerlog.segmentRecords", 1 << 20); // 32 MB segments
+    public static final long SYNC_INTERVAL_MS = Long.getLong("quiz.answerlog.syncMillis", 1000);
+    public static final int MAX_SEGMENTS = Integer.getInteger("quiz.answerlog.maxSegments", 64);
+
+    public static final int SERVED = 1;
+    public static final int ANSWERED = 2;
+
+    static final int RECORD_BYTES = 32;
+    static final int HEADER_BYTES = 4096;
+    private static final int MAGIC = 0x41574C47; // "AWLG"
+    private static final int VERSION = 2;
+    private static final String PREFIX = "answers-";
+    private static final String SUFFIX = ".log";
+    private static final long HOLE_GRACE_NANOS = 1_000_000_000L;
+
+    // Header is published last and read first, so it needs release/acquire ordering
+    private static final VarHandle INT =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Wall-clock anchor for System.nanoTime(), so timestamps are both precise and comparable across runs
+    private static final long EPOCH_NANOS_OFFSET = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    private static volatile AnswerLog instance = null;
+    private static volatile boolean disabled = LOG_DIR.isEmpty();
+
+    private final Path dir;
+    private final ShardMap shards;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final long firstSegment;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Thread syncer;
+    private volatile Segment current;
+    private volatile Segment previous;
+    private volatile boolean closed;
+
+    // Statistics
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong segmentsCreated = new AtomicLong();
+    private final AtomicLong segmentsDeleted = new AtomicLong();
+
+    /**
+     * Open a log in a directory, starting a new segment after any existing ones
+     * @param shards shard map the questions come from, or null for a single database
+     * @param syncIntervalMillis interval between background forces to disk (0 = only on close)
+     */
+    public AnswerLog(Path dir, ShardMap shards, int recordsPerSegment, long syncIntervalMillis) throws IOException {
+        this(dir, shards, recordsPerSegment, syncIntervalMillis, MAX_SEGMENTS);
+    }
+
+    /**
+     * @param maxSegments segments kept on disk, oldest deleted first (0 = keep all)
+     */
+    public AnswerLog(Path dir, ShardMap shards, int recordsPerSegment, long syncIntervalMillis, int maxSegments)
+            throws IOException {
+        if (recordsPerSegment <= 0 || (long) recordsPerSegment * RECORD_BYTES + HEADER_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size out of range: " + recordsPerSegment + " records");
+        }
+        if (maxSegments < 0) {
+            throw new IllegalArgumentException("maxSegments must not be negative: " + maxSegments);
+        }
+        this.dir = dir;
+        this.shards = shards;
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(dir);
+        this.firstSegment = lastSegment(dir) + 1;
+        this.current = create(firstSegment);
+
+        if (syncIntervalMillis > 0) {
+            this.syncer = new Thread(() -> {
+                while (!closed) {
+                    try {
+                        Thread.sleep(syncIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    force();
+                }
+            }, "answer-log-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Shared log, or null when disabled (-Dquiz.answerlog.dir=) or the directory cannot be opened
+     * Called on every served question and answer, so the started case takes no lock
+     */
+    public static AnswerLog getInstance() {
+        AnswerLog current = instance;
+        return current != null || disabled ? current : start();
+    }
+
+    private static synchronized AnswerLog start() {
+        if (instance == null && !disabled) {
+            ShardMap shards;
+            try {
+                shards = DatabaseConnection.getShardMap();
+            } catch (IllegalStateException e) {
+                shards = null;
+            }
+            try {
+                AnswerLog log = new AnswerLog(Paths.get(LOG_DIR), shards, DEFAULT_RECORDS_PER_SEGMENT,
+                    SYNC_INTERVAL_MS);
+                MetricsRegistry metrics = MetricsRegistry.getInstance();
+                metrics.gauge("quiz_answer_log_records_total", log::getAppendedCount);
+                metrics.gauge("quiz_answer_log_dropped_total", log::getDroppedCount);
+                metrics.gauge("quiz_answer_log_segments_created", log::getSegmentsCreated);
+                metrics.gauge("quiz_answer_log_segments_deleted", log::getSegmentsDeleted);
+                System.out.println("✓ Answer log " + LOG_DIR + " (segment " + log.current.number + ")");
+                instance = log;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("✗ Answer log disabled, cannot open " + LOG_DIR + ": " + e.getMessage());
+                disabled = true;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Close the shared log if it was started, forcing it to disk
+     */
+    public static synchronized void shutdownInstance() {
+        disabled = true; // late appends during shutdown must not reopen the log
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Record a question handed to a session
+     */
+    public void served(long sessionId, Question question) {
+        append(SERVED, sessionId, question, 0, false, 0);
+    }
+
+    /**
+     * Record a session's answer to a question
+     * @param selectedOption option number (1-4), or 0 if the caller only knows correctness
+     * @param answerNanos time from serving the question to the answer
+     */
+    public void answered(long sessionId, Question question, int selectedOption, boolean correct, long answerNanos) {
+        append(ANSWERED, sessionId, question, selectedOption, correct, answerNanos);
+    }
+
+    private void append(int type, long sessionId, Question question, int option, boolean correct, long answerNanos) {
+        long seq = sequence.getAndIncrement();
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        long number = firstSegment + seq / recordsPerSegment;
+        Segment segment = current;
+        if (segment.number != number) {
+            segment = segment(number);
+            if (segment == null) {
+                dropped.increment();
+                return;
+            }
+        }
+
+        ByteBuffer buffer = segment.buffer;
+        int at = HEADER_BYTES + (int) (seq % recordsPerSegment) * RECORD_BYTES;
+        buffer.putInt(at + 4, shards == null ? 0 : shards.indexFor(question.getTopic()));
+        buffer.putInt(at + 8, question.getId());
+        buffer.putInt(at + 12, (int) Math.min(Integer.MAX_VALUE, answerNanos / 1_000_000));
+        buffer.putLong(at + 16, sessionId);
+        buffer.putLong(at + 24, EPOCH_NANOS_OFFSET + System.nanoTime());
+        int header = type | (option & 0xFF) << 8 | (correct ? 1 : 0) << 16 | (question.getDifficulty() & 0x7F) << 24;
+        INT.setRelease(buffer, at, header);
+    }
+
+    /**
+     * Slow path: the slot is in a segment other than the current one (rolling, or a late writer)
+     */
+    private synchronized Segment segment(long number) {
+        Segment segment = current;
+        if (segment.number == number) {
+            return segment;
+        }
+        if (previous != null && previous.number == number) {
+            return previous;
+        }
+        try {
+            segment = create(number);
+        } catch (IOException e) {
+            System.err.println("✗ Answer log cannot open segment " + number + ": " + e.getMessage());
+            return null;
+        }
+        if (number > current.number) {
+            previous = current;
+            current = segment;
+        }
+        return segment;
+    }
+
+    /**
+     * Map a segment, creating it at full size with its header first so readers never see a short file
+     */
+    private Segment create(long number) throws IOException {
+        Path file = dir.resolve(fileName(number));
+        if (Files.exists(file)) {
+            return new Segment(number, map(file, FileChannel.MapMode.READ_WRITE));
+        }
+        Path tmp = dir.resolve(fileName(number) + ".tmp");
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_BYTES + (long) recordsPerSegment * RECORD_BYTES);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_BYTES);
+        buffer.putInt(12, recordsPerSegment);
+        buffer.putLong(16, firstSegment); // run id: the segment this process started with
+        buffer.putLong(24, System.currentTimeMillis());
+        buffer.putInt(32, HEADER_BYTES);
+        writeShardNames(buffer, file);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        segmentsCreated.incrementAndGet();
+        prune(number);
+        return new Segment(number, buffer);
+    }
+
+    /**
+     * Shard names at offset 36: count, then each name as a short length and UTF-8 bytes
+     */
+    private void writeShardNames(ByteBuffer buffer, Path file) throws IOException {
+        List<ShardMap.Shard> list = shards == null ? List.of() : shards.getShards();
+        int at = 40;
+        for (ShardMap.Shard shard : list) {
+            byte[] name = shard.getName().getBytes(StandardCharsets.UTF_8);
+            if (at + 2 + name.length > HEADER_BYTES) {
+                throw new IOException("Shard names do not fit in the header of " + file);
+            }
+            buffer.putShort(at, (short) name.length);
+            buffer.put(at + 2, name);
+            at += 2 + name.length;
+        }
+        buffer.putInt(36, list.size());
+    }
+
+    /**
+     * Delete the oldest segments beyond maxSegments; never one this process may still write
+     */
+    private void prune(long newest) {
+        if (maxSegments == 0) {
+            return;
+        }
+        try {
+            long[] numbers = segmentNumbers(dir).sorted().toArray();
+            Segment last = previous;
+            for (int i = 0; i < numbers.length - maxSegments; i++) {
+                long number = numbers[i];
+                Segment open = current;
+                if (number == newest || open != null && number == open.number || last != null && number == last.number) {
+                    continue;
+                }
+                if (Files.deleteIfExists(dir.resolve(fileName(number)))) {
+                    segmentsDeleted.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠ Answer log could not delete old segments: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Force the open segments to disk
+     */
+    public void force() {
+        Segment last = previous;
+        if (last != null) {
+            last.mapping.force();
+        }
+        current.mapping.force();
+    }
+
+    /**
+     * Stop accepting records and force what was written to disk
+     */
+    public void close() {
+        closed = true;
+        if (syncer != null) {
+            syncer.interrupt();
+        }
+        force();
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    // Reading
+
+    /**
+     * Every answer in a log directory, oldest first, as a source for DifficultyCalibrator
+     * Sessions are the answerers; session ids restart with each process, so they are
+     * qualified by the run that wrote them. Safe to run against a log that is being written;
+     * each pass sees the records published when it reaches them.
+     * @param shards current shard map: question keys use its shard indexes, and answers for
+     *               shards it no longer has are skipped (null = single database)
+     */
+    public static AnswerSource answers(Path dir, ShardMap shards) {
+        return sink -> {
+            Reader reader = new Reader(dir, 0);
+            String[][] names = {null};
+            int[][] remap = {null};
+            long[] unresolved = {0};
+            Consumer<Record> consumer = record -> {
+                if (record.getType() != ANSWERED) {
+                    return;
+                }
+                if (record.shardNames != names[0]) {
+                    names[0] = record.shardNames;
+                    remap[0] = remap(record.shardNames, shards);
+                }
+                int written = record.getShardIndex();
+                int shard = written >= 0 && written < remap[0].length ? remap[0][written] : -1;
+                if (shard < 0) {
+                    unresolved[0]++;
+                    return;
+                }
+                sink.answer(record.getRun() << 32 ^ record.getSessionId(),
+                    AnswerSource.questionKey(shard, record.getQuestionId()), record.isCorrect());
+            };
+            while (reader.poll(consumer, Integer.MAX_VALUE) > 0) {
+                // keep reading until the end of the last segment
+            }
+            if (unresolved[0] > 0) {
+                System.out.println("⚠ Skipped " + unresolved[0] + " logged answers for shards no longer configured");
+            }
+        };
+    }
+
+    /**
+     * Current shard index for each shard a segment names (-1 = gone)
+     * A segment written without a shard map only resolves against a single database.
+     */
+    private static int[] remap(String[] names, ShardMap shards) {
+        if (names.length == 0) {
+            return new int[] {shards == null ? 0 : -1};
+        }
+        int[] indexes = new int[names.length];
+        Arrays.fill(indexes, -1);
+        if (shards != null) {
+            for (ShardMap.Shard shard : shards.getShards()) {
+                for (int i = 0; i < names.length; i++) {
+                    if (names[i].equals(shard.getName())) {
+                        indexes[i] = shard.getIndex();
+                    }
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Reader - Tails a log directory from its oldest segment
+     * Single-threaded; run any number of readers alongside the writer.
+     * A slot left unpublished (a writer that died mid-append) is skipped once a later record
+     * or segment exists and the slot has stayed empty for the hole grace period.
+     */
+    public static final class Reader {
+
+        private final Path dir;
+        private final long holeGraceNanos;
+        private final Record record = new Record();
+        private long segmentNumber;
+        private ByteBuffer buffer;
+        private String[] shardNames;
+        private int dataAt;
+        private int slots;
+        private int index;
+        private long holeSinceNanos;
+
+        // Statistics
+        private long read;
+        private long skipped;
+
+        /**
+         * Reader that waits up to one second before skipping an unpublished slot
+         */
+        public Reader(Path dir) {
+            this(dir, HOLE_GRACE_NANOS);
+        }
+
+        /**
+         * @param holeGraceNanos how long an unpublished slot followed by later data is waited for (0 = skip at once)
+         */
+        public Reader(Path dir, long holeGraceNanos) {
+            this.dir = dir;
+            this.holeGraceNanos = holeGraceNanos;
+        }
+
+        /**
+         * Pass up to max newly published records to the consumer
+         * The Record is reused; copy fields out rather than keeping it.
+         * @return records passed (0 = caught up with the writer)
+         */
+        public int poll(Consumer<Record> consumer, int max) throws IOException {
+            int count = 0;
+            while (count < max) {
+                if (buffer == null || index == slots) {
+                    if (!openNext()) {
+                        break;
+                    }
+                    continue;
+                }
+                int at = dataAt + index * RECORD_BYTES;
+                int header = (int) INT.getAcquire(buffer, at);
+                if (header == 0) {
+                    if (!skipHole(at)) {
+                        break;
+                    }
+                    continue;
+                }
+                holeSinceNanos = 0;
+                record.buffer = buffer;
+                record.shardNames = shardNames;
+                record.at = at;
+                record.header = header;
+                consumer.accept(record);
+                index++;
+                count++;
+            }
+            read += count;
+            return count;
+        }
+
+        /**
+         * An empty slot is a hole, not the end, if anything after it has been written
+         */
+        private boolean skipHole(int at) {
+            boolean nextWritten = index + 1 < slots && (int) INT.getAcquire(buffer, at + RECORD_BYTES) != 0;
+            if (!nextWritten && !Files.exists(dir.resolve(fileName(segmentNumber + 1)))) {
+                return false;
+            }
+            long now = System.nanoTime();
+            if (holeSinceNanos == 0) {
+                holeSinceNanos = now;
+            }
+            if (now - holeSinceNanos < holeGraceNanos) {
+                return false;
+            }
+            if (nextWritten) {
+                index++;
+                skipped++;
+            } else {
+                index = slots; // rest of a segment whose writer stopped (crash or restart)
+            }
+            return true;
+        }
+
+        /**
+         * Move to the next segment if it exists (the oldest one on the first call,
+         * or after segments this reader had not reached were deleted)
+         */
+        private boolean openNext() throws IOException {
+            long next = buffer == null ? -1 : segmentNumber + 1;
+            Path file = next < 0 ? null : dir.resolve(fileName(next));
+            if (file == null || !Files.exists(file)) {
+                long first = firstSegment(dir);
+                if (first <= next || first < 0) {
+                    return false;
+                }
+                next = first;
+                file = dir.resolve(fileName(next));
+            }
+            ByteBuffer mapped = map(file, FileChannel.MapMode.READ_ONLY);
+            if (mapped.capacity() < 40 || mapped.getInt(0) != MAGIC || mapped.getInt(8) != RECORD_BYTES) {
+                throw new IOException("Not an answer log segment: " + file);
+            }
+            if (mapped.getInt(4) != VERSION) {
+                throw new IOException("Unsupported answer log version " + mapped.getInt(4) + ": " + file);
+            }
+            int headerBytes = mapped.getInt(32);
+            if (headerBytes < 40 || headerBytes > mapped.capacity()) {
+                throw new IOException("Corrupt answer log header: " + file);
+            }
+            segmentNumber = next;
+            buffer = mapped;
+            shardNames = readShardNames(mapped, headerBytes, file);
+            dataAt = headerBytes;
+            slots = Math.min(mapped.getInt(12), (mapped.capacity() - headerBytes) / RECORD_BYTES);
+            index = 0;
+            holeSinceNanos = 0;
+            return true;
+        }
+
+        private static String[] readShardNames(ByteBuffer mapped, int headerBytes, Path file) throws IOException {
+            int count = mapped.getInt(36);
+            if (count < 0 || count > (headerBytes - 40) / 2) {
+                throw new IOException("Corrupt answer log header: " + file);
+            }
+            String[] names = new String[count];
+            int at = 40;
+            for (int i = 0; i < count; i++) {
+                int length = mapped.getShort(at) & 0xFFFF;
+                if (at + 2 + length > headerBytes) {
+                    throw new IOException("Corrupt answer log header: " + file);
+                }
+                byte[] name = new byte[length];
+                mapped.get(at + 2, name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                at += 2 + length;
+            }
+            return names;
+        }
+
+        public long getReadCount() {
+            return read;
+        }
+
+        /**
+         * Unpublished slots skipped (records lost to a writer crash)
+         */
+        public long getSkippedCount() {
+            return skipped;
+        }
+
+        /**
+         * Segment and slot of the next record, e.g. for logging how far a tail has got
+         */
+        public String getPosition() {
+            return fileName(segmentNumber) + "#" + index;
+        }
+    }
+
+    /**
+     * Record - View of one record in a mapped segment, reused by its Reader
+     */
+    public static final class Record {
+
+        private ByteBuffer buffer;
+        private String[] shardNames;
+        private int at;
+        private int header;
+
+        public int getType() {
+            return header & 0xFF;
+        }
+
+        /**
+         * Option number (1-4), or 0 for served records and answers logged without it
+         */
+        public int getSelectedOption() {
+            return header >>> 8 & 0xFF;
+        }
+
+        public boolean isCorrect() {
+            return (header >>> 16 & 0xFF) != 0;
+        }
+
+        public int getDifficulty() {
+            return header >>> 24;
+        }
+
+        /**
+         * Index into the writing segment's shard names; see getShardName for a stable identity
+         */
+        public int getShardIndex() {
+            return buffer.getInt(at + 4);
+        }
+
+        /**
+         * Shard the question was served from, or null if the writer had no shard map
+         */
+        public String getShardName() {
+            int index = getShardIndex();
+            return index >= 0 && index < shardNames.length ? shardNames[index] : null;
+        }
+
+        public int getQuestionId() {
+            return buffer.getInt(at + 8);
+        }
+
+        public int getAnswerMillis() {
+            return buffer.getInt(at + 12);
+        }
+
+        public long getSessionId() {
+            return buffer.getLong(at + 16);
+        }
+
+        public long getTimestampNanos() {
+            return buffer.getLong(at + 24);
+        }
+
+        /**
+         * First segment written by the process that wrote this record; tells its session ids apart from other runs'
+         */
+        public long getRun() {
+            return buffer.getLong(16);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s session=%d question=%s/%d option=%d correct=%b difficulty=%d answerMillis=%d",
+                getType() == SERVED ? "served" : "answered", getSessionId(), getShardName(), getQuestionId(),
+                getSelectedOption(), isCorrect(), getDifficulty(), getAnswerMillis());
+        }
+    }
+
+    private static final class Segment {
+
+        private final long number;
+        private final MappedByteBuffer mapping;
+        private final ByteBuffer buffer; // same mapping, typed exactly as the VarHandle expects
+
+        Segment(long number, MappedByteBuffer mapping) {
+            this.number = number;
+            this.mapping = mapping;
+            this.buffer = mapping;
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+            ? new StandardOpenOption[] {StandardOpenOption.READ}
+            : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            MappedByteBuffer buffer = channel.map(mode, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private static String fileName(long number) {
+        return String.format("%s%010d%s", PREFIX, number, SUFFIX);
+    }
+
+    private static long firstSegment(Path dir) throws IOException {
+        return segmentNumbers(dir).min().orElse(-1);
+    }
+
+    private static long lastSegment(Path dir) throws IOException {
+        return segmentNumbers(dir).max().orElse(0);
+    }
+
+    private static LongStream segmentNumbers(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return LongStream.empty();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            long[] numbers = files.map(f -> f.getFileName().toString())
+                .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                .mapToLong(name -> {
+                    try {
+                        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                })
+                .filter(n -> n >= 0)
+                .toArray();
+            return LongStream.of(numbers);
+        }
+    }
+
+    // Statistics
+
+    /**
+     * Records written by this process
+     */
+    public long getAppendedCount() {
+        return sequence.get() - dropped.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSegmentsCreated() {
+        return segmentsCreated.get();
+    }
+
+    /**
+     * Old segments deleted to stay within maxSegments
+     */
+    public long getSegmentsDeleted() {
+        return segmentsDeleted.get();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("answer log dir=%s segment=%d appended=%d dropped=%d segmentsCreated=%d segmentsDeleted=%d",
+            dir, current.number, getAppendedCount(), getDroppedCount(), getSegmentsCreated(), getSegmentsDeleted());
+    }
+}
@@ -0,0 +1,41 @@
+package service;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * AnswerSource - Replayable stream of recorded answers for offline jobs
+ * Each call to forEach streams the full history again in the same order, so
+ * multi-pass jobs such as DifficultyCalibrator never hold the answers in memory.
+ */
+public interface AnswerSource {
+
+    /**
+     * Stream every recorded answer once
+     */
+    void forEach(Sink sink) throws IOException, SQLException;
+
+    /**
+     * Key for a question: shard index in the high half, question id in the low half
+     * (ids are only unique within a shard; the shard index is 0 without a shard map)
+     * The index is a position in the current ShardMap, so keys must not outlive a change to the shards.
+     */
+    static long questionKey(int shardIndex, int questionId) {
+        return (long) shardIndex << 32 | (questionId & 0xFFFFFFFFL);
+    }
+
+    static int shardIndex(long questionKey) {
+        return (int) (questionKey >>> 32);
+    }
+
+    static int questionId(long questionKey) {
+        return (int) questionKey;
+    }
+
+    /**
+     * Sink - Receives one answer: who answered (e.g. a session id), which question, and whether it was right
+     */
+    interface Sink {
+        void answer(long answererKey, long questionKey, boolean correct);
+    }
+}
@@ -0,0 +1,80 @@
+package service;
+
+import model.Question;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * AsyncQuizService - Non-blocking facade over one user's QuizService for the GUI
+ * Every call that may touch MySQL runs on a small shared I/O pool and returns a
+ * CompletableFuture, so the AWT event thread never waits for a round trip.
+ * Complete UI work with thenAcceptAsync(..., EventQueue::invokeLater).
+ *
+ * Calls made through one facade run in submission order (each waits for the
+ * previous one), so a prefetch can never overtake or race with saveResult.
+ */
+public class AsyncQuizService {
+
+    private static final int IO_THREADS = 4;
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+    private static final ExecutorService IO_EXECUTOR = Executors.newFixedThreadPool(IO_THREADS, r -> {
+        Thread t = new Thread(r, "quiz-io-" + THREAD_IDS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final QuizService quizService;
+    private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+
+    public AsyncQuizService(QuizService quizService) {
+        this.quizService = quizService;
+    }
+
+    public QuizService getQuizService() {
+        return quizService;
+    }
+
+    public CompletableFuture<List<String>> getAvailableTopics() {
+        return submit(quizService::getAvailableTopics);
+    }
+
+    /**
+     * @return future completing with true if questions were loaded
+     */
+    public CompletableFuture<Boolean> loadQuestions() {
+        return submit(quizService::loadQuestions);
+    }
+
+    /**
+     * Next question at the current difficulty; call after processAnswer to prefetch
+     * The question is only fetched: call QuizService.markQuestionShown() once it is displayed,
+     * so time spent reading the previous feedback does not count as time to answer
+     * @return future completing with the question, or null when none are left
+     */
+    public CompletableFuture<Question> getNextQuestion() {
+        return submit(quizService::prefetchNextQuestion);
+    }
+
+    /**
+     * @return future completing with true if the result was accepted for saving
+     */
+    public CompletableFuture<Boolean> saveResult() {
+        return submit(quizService::saveResult);
+    }
+
+    /**
+     * Queue a task behind the previous one on the I/O pool
+     */
+    private synchronized <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> next = last
+            .handle((result, error) -> null)
+            .thenApplyAsync(ignored -> task.get(), IO_EXECUTOR);
+        last = next;
+        return next;
+    }
+}
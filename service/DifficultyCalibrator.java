@@ -0,0 +1,603 @@
+package service;
+
+import db.DatabaseConnection;
+import db.ShardMap;
+import model.QuestionStore;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * DifficultyCalibrator - Fits question difficulty from recorded answers (Rasch / 1PL IRT)
+ * Models P(correct) = 1 / (1 + e^-(ability - difficulty)) with one ability per answerer
+ * and one difficulty per question, fitted by joint maximum likelihood:
+ *
+ *   1. index pass: stream the answers once to give answerers and questions dense ids
+ *   2. fit passes: stream the answers again per iteration; answers are buffered in a
+ *      fixed-size chunk that a ForkJoinPool splits into SUM_PARTS fixed slices, each
+ *      summing its gradients into its own partial arrays; the partials are merged in
+ *      slice order once per pass, so a fit does not depend on scheduling. Then every
+ *      parameter takes one Newton step (a weak normal prior keeps all-correct or
+ *      all-wrong answerers and questions finite; difficulties are centred at 0)
+ *   3. bucketing: questions with enough attempts are ranked by fitted difficulty and
+ *      cut into levels 1-3 in the same proportions as their current labels, so the
+ *      bank keeps its balance of easy, medium and hard questions
+ *   4. write-back: changed labels are updated in JDBC batches, per shard
+ *
+ * Memory is a few arrays per answerer and question (SUM_PARTS + 1 sets of gradient
+ * sums) plus one chunk, independent of the number of answers, so tens of millions of answers stream through a small heap.
+ */
+public class DifficultyCalibrator {
+
+    public static final int DEFAULT_ITERATIONS = Integer.getInteger("quiz.calibrate.iterations", 10);
+    public static final int DEFAULT_MIN_ATTEMPTS = Integer.getInteger("quiz.calibrate.minAttempts", 30);
+    public static final int WRITE_BATCH_SIZE = 500;
+
+    static final int CHUNK_SIZE = 1 << 20;
+    // Fixed slices per chunk, each with its own gradient sums; fixed so that the order
+    // of floating-point additions, and so the fit, is the same on any number of cores
+    private static final int SUM_PARTS = 8;
+    private static final double PRIOR_PRECISION = 0.25; // N(0, 2^2) prior
+    private static final double MAX_STEP = 1.0;
+    private static final double CONVERGED_STEP = 1e-3;
+
+    private final ForkJoinPool pool;
+    private final int iterations;
+    private final int minAttempts;
+
+    public DifficultyCalibrator(ForkJoinPool pool, int iterations, int minAttempts) {
+        this.pool = pool;
+        this.iterations = iterations;
+        this.minAttempts = minAttempts;
+    }
+
+    /**
+     * Calibrator on the common fork/join pool with the configured defaults
+     */
+    public DifficultyCalibrator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_ITERATIONS, DEFAULT_MIN_ATTEMPTS);
+    }
+
+    /**
+     * Fit abilities and difficulties; streams the source 1 + iterations times at most
+     */
+    public Result fit(AnswerSource source) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Model model = index(source);
+
+        int passes = 0;
+        double step = Double.MAX_VALUE;
+        while (passes < iterations && step > CONVERGED_STEP) {
+            model.clearGradients();
+            Chunk chunk = new Chunk(model);
+            source.forEach(chunk::add);
+            chunk.flush();
+            model.mergeGradients();
+            step = model.newtonStep();
+            passes++;
+        }
+
+        return new Result(model, passes, step, System.nanoTime() - start);
+    }
+
+    /**
+     * Pass 1: dense ids and per-question attempt counts
+     */
+    private static Model index(AnswerSource source) throws IOException, SQLException {
+        Model model = new Model();
+        source.forEach((answerer, question, correct) -> {
+            model.answerers.indexOf(answerer);
+            int item = model.questions.indexOf(question);
+            if (item == model.attempts.length) {
+                model.attempts = Arrays.copyOf(model.attempts, Math.max(16, item * 2));
+                model.correct = Arrays.copyOf(model.correct, model.attempts.length);
+            }
+            model.attempts[item]++;
+            if (correct) {
+                model.correct[item]++;
+            }
+            model.answers++;
+        });
+        model.allocate();
+        return model;
+    }
+
+    /**
+     * Current difficulty label of every question, keyed like AnswerSource.questionKey
+     */
+    public static Map<Long, Integer> loadLabels() throws SQLException {
+        Map<Long, Integer> labels = new HashMap<>();
+        ShardMap shards = shardMap();
+        if (shards == null) {
+            try (Connection connection = DatabaseConnection.getConnection()) {
+                addLabels(QuestionLoader.loadHeaders(connection), 0, labels);
+            }
+        } else {
+            for (ShardMap.Shard shard : shards.getShards()) {
+                try (Connection connection = shard.getConnection()) {
+                    addLabels(QuestionLoader.loadHeaders(connection), shard.getIndex(), labels);
+                }
+            }
+        }
+        return labels;
+    }
+
+    private static void addLabels(QuestionStore store, int shardIndex, Map<Long, Integer> labels) {
+        for (int row = 0; row < store.size(); row++) {
+            labels.put(AnswerSource.questionKey(shardIndex, store.getId(row)), store.getDifficulty(row));
+        }
+    }
+
+    /**
+     * Update changed labels in batches, one transaction per batch, then refresh the bank
+     * @param changes question key -> new difficulty
+     * @return rows updated
+     */
+    public static int writeBack(Map<Long, Integer> changes) throws SQLException {
+        Map<Integer, List<long[]>> byShard = new HashMap<>();
+        for (Map.Entry<Long, Integer> change : changes.entrySet()) {
+            byShard.computeIfAbsent(AnswerSource.shardIndex(change.getKey()), s -> new ArrayList<>())
+                .add(new long[] {AnswerSource.questionId(change.getKey()), change.getValue()});
+        }
+
+        ShardMap shards = shardMap();
+        int updated = 0;
+        for (Map.Entry<Integer, List<long[]>> group : byShard.entrySet()) {
+            int shard = group.getKey();
+            if (shards == null ? shard != 0 : shard < 0 || shard >= shards.getShards().size()) {
+                throw new SQLException("No shard " + shard + " for " + group.getValue().size() + " changed questions");
+            }
+            try (Connection connection = shards != null
+                    ? shards.getShards().get(shard).getConnection() : DatabaseConnection.getConnection()) {
+                updated += update(connection, group.getValue());
+            }
+        }
+        QuestionBank.getInstance().invalidate();
+        return updated;
+    }
+
+    /**
+     * Shard map, with a shard file that cannot be loaded reported like any other database error
+     */
+    private static ShardMap shardMap() throws SQLException {
+        try {
+            return DatabaseConnection.getShardMap();
+        } catch (IllegalStateException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    private static int update(Connection connection, List<long[]> rows) throws SQLException {
+        int updated = 0;
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement("UPDATE questions SET difficulty = ? WHERE id = ?")) {
+            for (int from = 0; from < rows.size(); from += WRITE_BATCH_SIZE) {
+                int to = Math.min(from + WRITE_BATCH_SIZE, rows.size());
+                for (int i = from; i < to; i++) {
+                    stmt.setInt(1, (int) rows.get(i)[1]);
+                    stmt.setInt(2, (int) rows.get(i)[0]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                connection.commit();
+                updated += to - from;
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return updated;
+    }
+
+    /**
+     * Result - Fitted difficulties plus what is needed to re-bucket them
+     */
+    public final class Result {
+
+        private final Model model;
+        private final int passes;
+        private final double lastStep;
+        private final long elapsedNanos;
+
+        Result(Model model, int passes, double lastStep, long elapsedNanos) {
+            this.model = model;
+            this.passes = passes;
+            this.lastStep = lastStep;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Fitted difficulty on the logit scale (higher is harder), or NaN if the question had no answers
+         */
+        public double getDifficulty(long questionKey) {
+            int item = model.questions.get(questionKey);
+            return item < 0 ? Double.NaN : model.difficulty[item];
+        }
+
+        public int getAttempts(long questionKey) {
+            int item = model.questions.get(questionKey);
+            return item < 0 ? 0 : model.attempts[item];
+        }
+
+        /**
+         * Fitted ability of an answerer on the same scale, or NaN if unknown
+         */
+        public double getAbility(long answererKey) {
+            int user = model.answerers.get(answererKey);
+            return user < 0 ? Double.NaN : model.ability[user];
+        }
+
+        /**
+         * New labels for questions whose level changes
+         * Questions with fewer than minAttempts answers, or not in currentLabels, keep their label.
+         * @param currentLabels question key -> current difficulty (1-3)
+         */
+        public Map<Long, Integer> relabel(Map<Long, Integer> currentLabels) {
+            int[] candidates = new int[model.questions.size()];
+            int count = 0;
+            int[] perLevel = new int[QuestionIndex.MAX_DIFFICULTY + 1];
+            for (int item = 0; item < model.questions.size(); item++) {
+                Integer label = currentLabels.get(model.questions.keyAt(item));
+                if (label != null && model.attempts[item] >= minAttempts && QuestionIndex.bucketOf(label) > 0) {
+                    candidates[count++] = item;
+                    perLevel[label]++;
+                }
+            }
+
+            // Rank by fitted difficulty and cut at the current level proportions
+            Integer[] ranked = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                ranked[i] = candidates[i];
+            }
+            Arrays.sort(ranked, (a, b) -> Double.compare(model.difficulty[a], model.difficulty[b]));
+
+            Map<Long, Integer> changes = new HashMap<>();
+            int level = QuestionIndex.MIN_DIFFICULTY;
+            int filled = 0;
+            for (Integer item : ranked) {
+                while (filled == perLevel[level] && level < QuestionIndex.MAX_DIFFICULTY) {
+                    level++;
+                    filled = 0;
+                }
+                filled++;
+                long key = model.questions.keyAt(item);
+                if (currentLabels.get(key) != level) {
+                    changes.put(key, level);
+                }
+            }
+            return changes;
+        }
+
+        public long getAnswerCount() {
+            return model.answers;
+        }
+
+        public int getQuestionCount() {
+            return model.questions.size();
+        }
+
+        public int getAnswererCount() {
+            return model.answerers.size();
+        }
+
+        public int getPasses() {
+            return passes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        /**
+         * One-line summary for logs
+         */
+        public String getStatsSummary() {
+            return String.format("calibration answers=%d questions=%d answerers=%d passes=%d lastStep=%.4f "
+                    + "elapsed=%dms", getAnswerCount(), getQuestionCount(), getAnswererCount(), passes, lastStep,
+                getElapsedMillis());
+        }
+    }
+
+    /**
+     * Model - Dense ids, parameters and per-pass gradient sums
+     */
+    private static final class Model {
+
+        private final LongIndex answerers = new LongIndex();
+        private final LongIndex questions = new LongIndex();
+        private int[] attempts = new int[16];
+        private int[] correct = new int[16];
+        private long answers;
+
+        private double[] ability;
+        private double[] difficulty;
+        private Sums total;
+        private Sums[] parts;
+
+        /**
+         * Size the parameter arrays once the index pass has counted everyone
+         * Difficulties start at the log-odds of a wrong answer, abilities at 0.
+         */
+        void allocate() {
+            ability = new double[answerers.size()];
+            difficulty = new double[questions.size()];
+            for (int item = 0; item < difficulty.length; item++) {
+                difficulty[item] = Math.log((attempts[item] - correct[item] + 0.5) / (correct[item] + 0.5));
+            }
+            total = new Sums(ability.length, difficulty.length);
+            parts = new Sums[SUM_PARTS];
+            for (int part = 0; part < SUM_PARTS; part++) {
+                parts[part] = new Sums(ability.length, difficulty.length);
+            }
+        }
+
+        void clearGradients() {
+            for (Sums part : parts) {
+                part.clear();
+            }
+        }
+
+        /**
+         * Add up the slices' sums, always in slice order
+         */
+        void mergeGradients() {
+            total.clear();
+            for (Sums part : parts) {
+                total.add(part);
+            }
+        }
+
+        /**
+         * Probability of a correct answer under the current parameters
+         */
+        double predict(int user, int item) {
+            return 1.0 / (1.0 + Math.exp(difficulty[item] - ability[user]));
+        }
+
+        /**
+         * One damped Newton step for every parameter, then centre difficulties at 0
+         * @return largest difficulty change
+         */
+        double newtonStep() {
+            for (int user = 0; user < ability.length; user++) {
+                ability[user] += step(total.abilityGradient, total.abilityCurvature, user, ability[user]);
+            }
+            double maxStep = 0;
+            double mean = 0;
+            for (int item = 0; item < difficulty.length; item++) {
+                double step = step(total.difficultyGradient, total.difficultyCurvature, item, difficulty[item]);
+                difficulty[item] += step;
+                mean += difficulty[item];
+                maxStep = Math.max(maxStep, Math.abs(step));
+            }
+            mean /= Math.max(1, difficulty.length);
+            for (int item = 0; item < difficulty.length; item++) {
+                difficulty[item] -= mean;
+            }
+            for (int user = 0; user < ability.length; user++) {
+                ability[user] -= mean;
+            }
+            return maxStep;
+        }
+
+        private static double step(double[] gradient, double[] curvature, int i, double value) {
+            double g = gradient[i] - PRIOR_PRECISION * value;
+            double h = curvature[i] + PRIOR_PRECISION;
+            return Math.max(-MAX_STEP, Math.min(MAX_STEP, g / h));
+        }
+    }
+
+    /**
+     * Sums - Gradient and curvature sums per answerer and per question
+     */
+    private static final class Sums {
+
+        private final double[] abilityGradient;
+        private final double[] abilityCurvature;
+        private final double[] difficultyGradient;
+        private final double[] difficultyCurvature;
+
+        Sums(int answerers, int questions) {
+            abilityGradient = new double[answerers];
+            abilityCurvature = new double[answerers];
+            difficultyGradient = new double[questions];
+            difficultyCurvature = new double[questions];
+        }
+
+        /**
+         * Gradient of one answer's log-likelihood: d/dability = y - p, d/ddifficulty = p - y
+         */
+        void accumulate(int user, int item, boolean correct, double p) {
+            double residual = (correct ? 1.0 : 0.0) - p;
+            double curvature = p * (1.0 - p);
+            abilityGradient[user] += residual;
+            abilityCurvature[user] += curvature;
+            difficultyGradient[item] -= residual;
+            difficultyCurvature[item] += curvature;
+        }
+
+        void add(Sums other) {
+            for (int i = 0; i < abilityGradient.length; i++) {
+                abilityGradient[i] += other.abilityGradient[i];
+                abilityCurvature[i] += other.abilityCurvature[i];
+            }
+            for (int i = 0; i < difficultyGradient.length; i++) {
+                difficultyGradient[i] += other.difficultyGradient[i];
+                difficultyCurvature[i] += other.difficultyCurvature[i];
+            }
+        }
+
+        void clear() {
+            Arrays.fill(abilityGradient, 0);
+            Arrays.fill(abilityCurvature, 0);
+            Arrays.fill(difficultyGradient, 0);
+            Arrays.fill(difficultyCurvature, 0);
+        }
+    }
+
+    /**
+     * Chunk - Fixed-size buffer of indexed answers, summed in parallel when full
+     * Slice p of every chunk always adds into parts[p] in answer order, so every run
+     * adds the same values in the same order whichever thread runs a slice.
+     * Answers from answerers or questions not seen by the index pass are skipped.
+     */
+    private final class Chunk {
+
+        private final Model model;
+        private final int[] users = new int[CHUNK_SIZE];
+        private final int[] items = new int[CHUNK_SIZE];
+        private final boolean[] correct = new boolean[CHUNK_SIZE];
+        private int size;
+
+        Chunk(Model model) {
+            this.model = model;
+        }
+
+        void add(long answerer, long question, boolean isCorrect) {
+            int user = model.answerers.get(answerer);
+            int item = model.questions.get(question);
+            if (user < 0 || item < 0) {
+                return;
+            }
+            users[size] = user;
+            items[size] = item;
+            correct[size] = isCorrect;
+            if (++size == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (size > 0) {
+                pool.invoke(new Accumulate(this, 0, SUM_PARTS));
+                size = 0;
+            }
+        }
+    }
+
+    /**
+     * Accumulate - Fork/join over a range of a chunk's fixed slices
+     */
+    private static final class Accumulate extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Chunk chunk;
+        private final int fromPart;
+        private final int toPart;
+
+        Accumulate(Chunk chunk, int fromPart, int toPart) {
+            this.chunk = chunk;
+            this.fromPart = fromPart;
+            this.toPart = toPart;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPart - fromPart == 1) {
+                Model model = chunk.model;
+                Sums sums = model.parts[fromPart];
+                int from = (int) ((long) chunk.size * fromPart / SUM_PARTS);
+                int to = (int) ((long) chunk.size * toPart / SUM_PARTS);
+                for (int i = from; i < to; i++) {
+                    int user = chunk.users[i];
+                    int item = chunk.items[i];
+                    sums.accumulate(user, item, chunk.correct[i], model.predict(user, item));
+                }
+                return;
+            }
+            int mid = (fromPart + toPart) >>> 1;
+            invokeAll(new Accumulate(chunk, fromPart, mid), new Accumulate(chunk, mid, toPart));
+        }
+    }
+
+    /**
+     * LongIndex - Open-addressing map from long keys to dense ids 0..size-1, without boxing
+     */
+    private static final class LongIndex {
+
+        private long[] keys = new long[1024];
+        private int[] slots = new int[1024]; // dense id + 1; 0 = empty
+        private long[] byId = new long[512];
+        private int size;
+
+        /**
+         * Dense id of a key, or -1 if absent
+         */
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; slots[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return slots[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Dense id of a key, assigning the next id if it is new
+         */
+        int indexOf(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; slots[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return slots[i] - 1;
+                }
+            }
+            int id = size++;
+            keys[i] = key;
+            slots[i] = id + 1;
+            if (id == byId.length) {
+                byId = Arrays.copyOf(byId, id * 2);
+            }
+            byId[id] = key;
+            if (size * 2 > keys.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        long keyAt(int id) {
+            return byId[id];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new long[oldKeys.length * 2];
+            slots = new int[oldSlots.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldSlots[j] != 0) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (slots[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    slots[i] = oldSlots[j];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package service;
+
+import db.DatabaseConnection;
+import model.QuizResult;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leaderboard - Live in-memory top-K boards, global and per topic
+ * Holds each user's best result; fed by QuizEngine.saveResult and rebuilt at startup
+ * by one streaming scan of the users table, so reads never sort the table.
+ *
+ * Each board is a ConcurrentSkipListSet ordered by score (ties: earlier result first).
+ * Reads (top-N, rank) walk the set without locking; writes lock only their board and
+ * trim it back to K, so memory stays bounded however many results are saved.
+ * Ranks are known for users on a board; anyone below the top K is unranked.
+ */
+public class Leaderboard {
+
+    public static final int DEFAULT_SIZE = Integer.getInteger("quiz.leaderboard.size", 1000);
+    public static final String GLOBAL = "";
+
+    private static final Leaderboard INSTANCE = new Leaderboard(DEFAULT_SIZE);
+
+    // Shared by all instances so entries merged from a rebuild never tie with live ones
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final int size;
+    private final Board global;
+    private final Map<String, Board> byTopic = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile long lastRebuildMillis;
+    private volatile long lastRebuildRows;
+
+    public Leaderboard(int size) {
+        this.size = size;
+        this.global = new Board(size);
+    }
+
+    /**
+     * Shared leaderboard used by QuizEngine
+     */
+    public static Leaderboard getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Add a saved result to the global board and to each topic it covers
+     * Results without a username cannot be ranked and are skipped.
+     */
+    public void record(QuizResult result) {
+        if (result.getUsername() == null) {
+            skipped.incrementAndGet();
+            return;
+        }
+        Entry entry = new Entry(result, SEQUENCE.incrementAndGet());
+        global.offer(entry);
+        for (String topic : result.getTopicNames()) {
+            byTopic.computeIfAbsent(topic, t -> new Board(size)).offer(entry);
+        }
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * Best results in rank order
+     * @param topic topic name, or GLOBAL for all results
+     * @param limit maximum number of entries (capped at K)
+     */
+    public List<Entry> getTop(String topic, int limit) {
+        Board board = board(topic);
+        if (board == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Entry> top = new ArrayList<>(Math.min(limit, size));
+        for (Entry entry : board.entries) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * 1-based rank of a user's best result, or -1 if the user is not in the top K
+     * @param topic topic name, or GLOBAL for all results
+     */
+    public int getRank(String topic, String username) {
+        Board board = board(topic);
+        Entry best = board == null || username == null ? null : board.bestByUser.get(username);
+        if (best == null) {
+            return -1;
+        }
+        int rank = 1;
+        for (Entry entry : board.entries) {
+            if (entry == best) {
+                return rank;
+            }
+            rank++;
+        }
+        return -1; // replaced by a better result while walking
+    }
+
+    /**
+     * Topics that have a board, sorted
+     */
+    public List<String> getTopics() {
+        List<String> topics = new ArrayList<>(byTopic.keySet());
+        Collections.sort(topics);
+        return topics;
+    }
+
+    /**
+     * Fill the boards from a streaming scan of the users table (on a read replica when configured)
+     * The scan builds separate boards that are then merged in, so results
+     * recorded while it runs are kept.
+     */
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        String query = "SELECT username, score, topic, correct_answers, wrong_answers, max_difficulty_reached"
+            + " FROM users";
+
+        Leaderboard scanned = new Leaderboard(size);
+        long rows = 0;
+        try (Connection connection = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = QuestionLoader.prepareStreaming(connection, query);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                scanned.record(new QuizResult(
+                    rs.getString("username"),
+                    rs.getInt("score"),
+                    rs.getString("topic"),
+                    rs.getInt("correct_answers"),
+                    rs.getInt("wrong_answers"),
+                    rs.getInt("max_difficulty_reached")));
+                rows++;
+            }
+        }
+
+        // Merge so live results saved during the scan are not lost; best-per-user dedupes overlap
+        global.mergeFrom(scanned.global);
+        for (Map.Entry<String, Board> entry : scanned.byTopic.entrySet()) {
+            byTopic.computeIfAbsent(entry.getKey(), t -> new Board(size)).mergeFrom(entry.getValue());
+        }
+
+        lastRebuildRows = rows;
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("✓ Leaderboard rebuilt from " + rows + " results in " + lastRebuildMillis + " ms");
+    }
+
+    /**
+     * Rebuild on a background thread so startup does not wait for the scan
+     */
+    public void rebuildAsync() {
+        Thread loader = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (SQLException e) {
+                System.err.println("✗ Leaderboard rebuild failed: " + e.getMessage());
+            }
+        }, "leaderboard-rebuild");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private Board board(String topic) {
+        return topic == null || topic.equals(GLOBAL) ? global : byTopic.get(topic);
+    }
+
+    // Statistics
+
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    /**
+     * Results skipped for having no username
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    public int getGlobalSize() {
+        return global.bestByUser.size();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("leaderboard K=%d global=%d topics=%d recorded=%d skipped=%d lastRebuild=%d rows/%dms",
+            size, getGlobalSize(), byTopic.size(), getRecordedCount(), getSkippedCount(), lastRebuildRows,
+            lastRebuildMillis);
+    }
+
+    /**
+     * Board - One bounded top-K set plus each listed user's entry
+     */
+    private static final class Board {
+
+        private static final Comparator<Entry> ORDER = (a, b) -> a.score != b.score
+            ? Integer.compare(b.score, a.score)
+            : Long.compare(a.sequence, b.sequence);
+
+        private final int capacity;
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+        private final Map<String, Entry> bestByUser = new ConcurrentHashMap<>();
+
+        Board(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(Entry entry) {
+            Entry previous = bestByUser.get(entry.username);
+            if (previous != null && previous.score >= entry.score) {
+                return;
+            }
+            if (previous == null && bestByUser.size() >= capacity
+                    && ORDER.compare(entry, entries.last()) > 0) {
+                return;
+            }
+
+            if (previous != null) {
+                entries.remove(previous);
+            }
+            entries.add(entry);
+            bestByUser.put(entry.username, entry);
+
+            // Trim back to K; the evicted user drops off this board
+            while (bestByUser.size() > capacity) {
+                Entry evicted = entries.pollLast();
+                bestByUser.remove(evicted.username, evicted);
+            }
+        }
+
+        void mergeFrom(Board other) {
+            Map<String, Entry> snapshot = new HashMap<>(other.bestByUser);
+            for (Entry entry : snapshot.values()) {
+                offer(entry);
+            }
+        }
+    }
+
+    /**
+     * Entry - One user's best result on a board
+     */
+    public static final class Entry {
+
+        private final String username;
+        private final int score;
+        private final String topic;
+        private final int correctAnswers;
+        private final int wrongAnswers;
+        private final int maxDifficultyReached;
+        private final long sequence;
+
+        Entry(QuizResult result, long sequence) {
+            this.username = result.getUsername();
+            this.score = result.getScore();
+            this.topic = result.getTopic();
+            this.correctAnswers = result.getCorrectAnswers();
+            this.wrongAnswers = result.getWrongAnswers();
+            this.maxDifficultyReached = result.getMaxDifficultyReached();
+            this.sequence = sequence;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public int getCorrectAnswers() {
+            return correctAnswers;
+        }
+
+        public int getWrongAnswers() {
+            return wrongAnswers;
+        }
+
+        public int getMaxDifficultyReached() {
+            return maxDifficultyReached;
+        }
+    }
+}
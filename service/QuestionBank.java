@@ -0,0 +1,464 @@
+package service;
+
+import db.DatabaseConnection;
+import db.ShardMap;
+import metrics.MetricsRegistry;
+import model.Question;
+import model.QuestionStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * QuestionBank - Process-wide, immutable in-memory copy of the questions table
+ * The bank is held as a compact columnar QuestionStore. Sessions draw QuestionIndex
+ * views from it that reference rows by position, so N sessions hold one copy of
+ * the bank, not N.
+ *
+ * The snapshot is reloaded from MySQL when its TTL expires or after invalidate().
+ * While one thread reloads, other threads keep using the previous snapshot.
+ *
+ * With a snapshot file configured (-Dquiz.bank.snapshot=questions.snap), the first
+ * load memory-maps that file instead of querying MySQL, so startup is fast and
+ * questions are served even while the database is down. Every later MySQL load
+ * rewrites the file.
+ *
+ * With lazy bodies (-Dquiz.bank.lazy=true) a MySQL load keeps only (id, difficulty,
+ * topic) headers; sessions fetch texts on demand through the bank's QuestionBodyCache.
+ * With a shard map, every shard is loaded in parallel and merged into one snapshot.
+ */
+public class QuestionBank {
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final QuestionBank INSTANCE = new QuestionBank(DEFAULT_TTL_MILLIS);
+    
+    static {
+        String snapshotFile = System.getProperty("quiz.bank.snapshot");
+        if (snapshotFile != null && !snapshotFile.isEmpty()) {
+            INSTANCE.setSnapshotFile(Paths.get(snapshotFile));
+        }
+        INSTANCE.setLazyBodies(Boolean.getBoolean("quiz.bank.lazy"));
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("quiz_bank_questions", INSTANCE::getQuestionCount);
+        metrics.gauge("quiz_bank_estimated_bytes", INSTANCE::getEstimatedBytes);
+        metrics.gauge("quiz_bank_hit_ratio", INSTANCE::getHitRate);
+        metrics.gauge("quiz_bank_body_cache_bytes", INSTANCE.bodyCache::getEstimatedBytes);
+        metrics.gauge("quiz_bank_body_cache_hit_ratio", INSTANCE.bodyCache::getHitRate);
+        metrics.gauge("quiz_bank_body_bytes_fetched", INSTANCE.bodyCache::getBytesFetched);
+    }
+
+    private volatile long ttlMillis;
+    private volatile Path snapshotFile;
+    private volatile boolean lazyBodies;
+    private volatile Snapshot snapshot;
+    private final QuestionBodyCache bodyCache = new QuestionBodyCache(QuestionBodyCache.DEFAULT_CAPACITY);
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile long lastLoadMillis;
+
+    public QuestionBank(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Shared bank used by all QuizService instances
+     */
+    public static QuestionBank getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set time-to-live of a loaded snapshot (0 disables caching)
+     */
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * File to map on first load and to refresh after each MySQL load (null = none)
+     */
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * True if a readable snapshot file is configured, so questions can be served without MySQL
+     */
+    public boolean hasSnapshotFile() {
+        Path file = snapshotFile;
+        return file != null && Files.isReadable(file);
+    }
+
+    /**
+     * Load only question headers from MySQL and fetch texts on demand (takes effect on next load)
+     */
+    public void setLazyBodies(boolean lazyBodies) {
+        this.lazyBodies = lazyBodies;
+    }
+
+    public boolean isLazyBodies() {
+        return lazyBodies;
+    }
+
+    /**
+     * Cache that serves question texts when the snapshot is header-only
+     */
+    public QuestionBodyCache getBodyCache() {
+        return bodyCache;
+    }
+
+    /**
+     * Force a reload on next access (e.g. after questions are edited)
+     */
+    public void invalidate() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.invalidated = true;
+        }
+        bodyCache.clear();
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Build a per-session view holding at most perBucket questions per topic and difficulty
+     * The selection is resolved to a bitset of topic ids once; candidates are the snapshot's
+     * precomputed topic-and-difficulty position arrays for each set bit, so no combination
+     * of topics needs a query or per-question string comparison.
+     * @param topics selected topics (empty = all topics; unknown and repeated names are ignored)
+     * @param perBucket sample size per topic/difficulty (0 = no limit)
+     * @param random source of randomness, or null to use ThreadLocalRandom
+     */
+    public QuestionIndex newSessionView(List<String> topics, int perBucket, Random random) throws SQLException {
+        Snapshot current = get();
+        Random sampler = random != null ? random : ThreadLocalRandom.current();
+        BitSet mask = current.topicMask(topics);
+
+        // Sample positions only; Question objects stay shared
+        int[] chosen = new int[16];
+        int count = 0;
+        for (int t = mask.nextSetBit(0); t >= 0; t = mask.nextSetBit(t + 1)) {
+            for (int[] bucket : current.positions[t]) {
+                int take = perBucket <= 0 ? bucket.length : Math.min(perBucket, bucket.length);
+                if (count + take > chosen.length) {
+                    chosen = Arrays.copyOf(chosen, Math.max(chosen.length * 2, count + take));
+                }
+                sample(bucket, take, chosen, count, sampler);
+                count += take;
+            }
+        }
+
+        return new QuestionIndex(current.store,
+            count == chosen.length ? chosen : Arrays.copyOf(chosen, count), random);
+    }
+
+    /**
+     * Replace the snapshot with the given questions instead of loading from MySQL
+     * (used by offline tools and benchmarks)
+     */
+    public void preload(List<Question> questions) {
+        preload(QuestionStore.of(questions));
+    }
+
+    public void preload(QuestionStore store) {
+        loadLock.lock();
+        try {
+            snapshot = new Snapshot(store);
+            loads.incrementAndGet();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Sorted list of topic names in the current snapshot
+     */
+    public List<String> getTopics() throws SQLException {
+        return get().topics;
+    }
+
+    /**
+     * Current snapshot, loading it on first use, expiry or invalidation
+     */
+    private Snapshot get() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null && !current.isStale(ttlMillis)) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        // Someone else is reloading: serve the previous snapshot meanwhile
+        if (current != null && !loadLock.tryLock()) {
+            hits.incrementAndGet();
+            return current;
+        }
+        if (current == null) {
+            loadLock.lock();
+        }
+
+        try {
+            current = snapshot;
+            if (current != null && !current.isStale(ttlMillis)) {
+                hits.incrementAndGet();
+                return current;
+            }
+            misses.incrementAndGet();
+            snapshot = current == null && hasSnapshotFile() ? mapSnapshotFile() : load();
+            return snapshot;
+        } catch (SQLException e) {
+            if (current == null) {
+                throw e;
+            }
+            // Database unavailable: keep serving the stale snapshot
+            System.err.println("✗ Question bank reload failed, serving previous snapshot: " + e.getMessage());
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Snapshot load() throws SQLException {
+        long start = System.nanoTime();
+        QuestionStore store;
+        ShardMap shards = DatabaseConnection.getShardMap();
+        if (shards != null) {
+            // Body fetches look questions up by id, which is only unique within a shard,
+            // so a sharded bank always loads full rows
+            store = QuestionLoader.loadAll(shards);
+        } else {
+            try (Connection connection = DatabaseConnection.getReadConnection()) {
+                store = lazyBodies ? QuestionLoader.loadHeaders(connection) : QuestionLoader.loadAll(connection);
+            }
+        }
+        Snapshot loaded = new Snapshot(store);
+
+        loads.incrementAndGet();
+        lastLoadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("✓ Question bank loaded: " + loaded.store.size() + " questions"
+            + (store.hasBodies() ? "" : " (headers only)") + " in " + lastLoadMillis + " ms");
+
+        // A header-only load would not make a servable snapshot file; keep the previous one
+        Path file = snapshotFile;
+        if (file != null && store.hasBodies()) {
+            try {
+                store.writeSnapshot(file);
+            } catch (IOException e) {
+                System.err.println("✗ Could not write question snapshot " + file + ": " + e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Cold start from the snapshot file; falls back to MySQL if it cannot be mapped
+     */
+    private Snapshot mapSnapshotFile() throws SQLException {
+        long start = System.nanoTime();
+        Path file = snapshotFile;
+        QuestionStore store;
+        try {
+            store = QuestionStore.mapSnapshot(file);
+        } catch (IOException e) {
+            System.err.println("✗ Could not map question snapshot " + file + ", loading from MySQL: "
+                + e.getMessage());
+            return load();
+        }
+        Snapshot loaded = new Snapshot(store);
+
+        loads.incrementAndGet();
+        lastLoadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("✓ Question bank mapped from " + file + ": " + store.size() + " questions in "
+            + lastLoadMillis + " ms");
+        return loaded;
+    }
+
+    /**
+     * Floyd's algorithm: write 'take' distinct random entries of bucket into out[offset...]
+     * O(take^2) membership checks, which is cheap for session-sized samples
+     */
+    private static void sample(int[] bucket, int take, int[] out, int offset, Random random) {
+        int n = bucket.length;
+        if (take == n) {
+            System.arraycopy(bucket, 0, out, offset, n);
+            return;
+        }
+        int filled = 0;
+        for (int j = n - take; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            int candidate = bucket[t];
+            for (int k = 0; k < filled; k++) {
+                if (out[offset + k] == candidate) {
+                    candidate = bucket[j];
+                    break;
+                }
+            }
+            out[offset + filled++] = candidate;
+        }
+    }
+
+    // Statistics
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+
+    public int getQuestionCount() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.store.size();
+    }
+
+    /**
+     * Approximate heap held by the current snapshot
+     */
+    public long getEstimatedBytes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.estimatedBytes;
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("bank questions=%d ~%dKB hits=%d misses=%d hitRate=%.1f%% loads=%d "
+                + "invalidations=%d lastLoad=%dms",
+            getQuestionCount(), getEstimatedBytes() / 1024, getHitCount(), getMissCount(),
+            getHitRate() * 100, getLoadCount(), getInvalidationCount(), getLastLoadMillis());
+    }
+
+    /**
+     * Snapshot - Immutable question store plus row positions grouped by topic and difficulty
+     * Topics get dense ids in sorted name order; positions[topicId][difficulty] holds the
+     * rows of one topic at one difficulty, i.e. the per-topic and per-difficulty sets
+     * intersected once at load time rather than on every session.
+     */
+    private static final class Snapshot {
+
+        private final QuestionStore store;
+        private final Map<String, Integer> topicIds;
+        private final int[][][] positions;
+        private final List<String> topics;
+        private final long loadedAtNanos;
+        private final long estimatedBytes;
+        private volatile boolean invalidated;
+
+        Snapshot(QuestionStore store) {
+            this.store = store;
+            this.loadedAtNanos = System.nanoTime();
+
+            // Count per topic id/difficulty, then fill exact-size position arrays
+            List<String> names = store.getTopicNames();
+            int[][] counts = new int[names.size()][QuestionIndex.MAX_DIFFICULTY + 1];
+            for (int row = 0; row < store.size(); row++) {
+                int topicId = store.getTopicId(row);
+                if (topicId >= 0) {
+                    counts[topicId][QuestionIndex.bucketOf(store.getDifficulty(row))]++;
+                }
+            }
+
+            int[][][] byTopicId = new int[names.size()][QuestionIndex.MAX_DIFFICULTY + 1][];
+            long bytes = store.getEstimatedBytes();
+            for (int t = 0; t < byTopicId.length; t++) {
+                for (int d = 0; d <= QuestionIndex.MAX_DIFFICULTY; d++) {
+                    byTopicId[t][d] = new int[counts[t][d]];
+                    bytes += 16L + 4L * counts[t][d];
+                    counts[t][d] = 0;
+                }
+            }
+            for (int row = 0; row < store.size(); row++) {
+                int topicId = store.getTopicId(row);
+                if (topicId >= 0) {
+                    int d = QuestionIndex.bucketOf(store.getDifficulty(row));
+                    byTopicId[topicId][d][counts[topicId][d]++] = row;
+                }
+            }
+
+            List<String> topicNames = new ArrayList<>(names);
+            Collections.sort(topicNames);
+            Map<String, Integer> ids = new HashMap<>();
+            int[][][] byDenseId = new int[topicNames.size()][][];
+            for (int t = 0; t < byTopicId.length; t++) {
+                int denseId = Collections.binarySearch(topicNames, names.get(t));
+                ids.put(names.get(t), denseId);
+                byDenseId[denseId] = byTopicId[t];
+            }
+
+            this.topicIds = ids;
+            this.positions = byDenseId;
+            this.topics = Collections.unmodifiableList(topicNames);
+            this.estimatedBytes = bytes;
+        }
+
+        /**
+         * Bitset of the dense ids of the selected topics (empty selection = every topic)
+         */
+        BitSet topicMask(List<String> selected) {
+            BitSet mask = new BitSet(positions.length);
+            if (selected.isEmpty()) {
+                mask.set(0, positions.length);
+                return mask;
+            }
+            for (String topic : selected) {
+                Integer id = topicIds.get(topic);
+                if (id != null) {
+                    mask.set(id);
+                }
+            }
+            return mask;
+        }
+
+        boolean isStale(long ttlMillis) {
+            return invalidated || ttlMillis <= 0
+                || System.nanoTime() - loadedAtNanos > TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+    }
+}
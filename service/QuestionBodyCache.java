@@ -0,0 +1,175 @@
+package service;
+
+import db.DatabaseConnection;
+import model.Question;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QuestionBodyCache - Bounded LRU cache of full questions for a header-only QuestionBank
+ * Sessions draw from a pool of (id, difficulty, topic) headers; when a question is
+ * served its body comes from here. A miss fetches that body plus the next few the
+ * session is likely to need in one small batch, so a session makes about one round
+ * trip per BATCH_SIZE questions and never pulls text it does not show.
+ *
+ * Bodies are shared by all sessions and evicted least recently used first.
+ */
+public class QuestionBodyCache {
+
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("quiz.bank.bodyCache.size", 4096);
+    public static final int BATCH_SIZE = 8;
+
+    private final int capacity;
+    private final LinkedHashMap<Integer, Question> bodies;
+    private long cachedBytes;
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong rowsFetched = new AtomicLong();
+    private final AtomicLong bytesFetched = new AtomicLong();
+
+    public QuestionBodyCache(int capacity) {
+        this.capacity = capacity;
+        this.bodies = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Body of a question, fetching it (and any uncached upcoming ids) on a miss
+     * @param upcoming ids likely to be asked for next; fetched in the same batch
+     * @param upcomingCount number of valid entries in upcoming
+     * @return the question, or null if it no longer exists in the database
+     */
+    public Question get(int id, int[] upcoming, int upcomingCount) throws SQLException {
+        List<Integer> batch = new ArrayList<>(1 + upcomingCount);
+        synchronized (this) {
+            Question body = bodies.get(id);
+            if (body != null) {
+                hits.incrementAndGet();
+                return body;
+            }
+            batch.add(id);
+            for (int i = 0; i < upcomingCount; i++) {
+                if (!bodies.containsKey(upcoming[i]) && !batch.contains(upcoming[i])) {
+                    batch.add(upcoming[i]);
+                }
+            }
+        }
+        misses.incrementAndGet();
+
+        // Fetch outside the lock so other sessions keep hitting the cache meanwhile
+        List<Question> fetched;
+        try (Connection connection = DatabaseConnection.getReadConnection()) {
+            fetched = QuestionLoader.loadByIds(connection, batch);
+        }
+        fetches.incrementAndGet();
+        rowsFetched.addAndGet(fetched.size());
+
+        Question found = null;
+        synchronized (this) {
+            for (Question question : fetched) {
+                bytesFetched.addAndGet(payloadBytes(question));
+                Question previous = bodies.put(question.getId(), question);
+                cachedBytes += estimateBytes(question) - (previous == null ? 0 : estimateBytes(previous));
+                if (question.getId() == id) {
+                    found = question;
+                }
+            }
+            // Evict least recently used bodies beyond capacity
+            Iterator<Map.Entry<Integer, Question>> eldest = bodies.entrySet().iterator();
+            while (bodies.size() > capacity && eldest.hasNext()) {
+                Map.Entry<Integer, Question> entry = eldest.next();
+                if (entry.getKey() != id) {
+                    cachedBytes -= estimateBytes(entry.getValue());
+                    eldest.remove();
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Drop all cached bodies (e.g. after questions are edited)
+     */
+    public synchronized void clear() {
+        bodies.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Column bytes of one row as sent by the server: UTF-8 texts plus three ints
+     */
+    private static long payloadBytes(Question q) {
+        return 12L + utf8Length(q.getQuestion()) + utf8Length(q.getOption1()) + utf8Length(q.getOption2())
+            + utf8Length(q.getOption3()) + utf8Length(q.getOption4()) + utf8Length(q.getTopic());
+    }
+
+    /**
+     * Approximate heap of one cached Question: map entry, object and its strings
+     */
+    private static long estimateBytes(Question q) {
+        return 64 + 48 + stringBytes(q.getQuestion()) + stringBytes(q.getOption1()) + stringBytes(q.getOption2())
+            + stringBytes(q.getOption3()) + stringBytes(q.getOption4()) + stringBytes(q.getTopic());
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40L + s.length();
+    }
+
+    private static int utf8Length(String s) {
+        return s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // Statistics
+
+    public synchronized int size() {
+        return bodies.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return cachedBytes;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public long getFetchCount() {
+        return fetches.get();
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched.get();
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched.get();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("bodies cached=%d/%d ~%dKB hitRate=%.1f%% fetches=%d rows=%d fetched=%dKB",
+            size(), capacity, getEstimatedBytes() / 1024, getHitRate() * 100, getFetchCount(),
+            getRowsFetched(), getBytesFetched() / 1024);
+    }
+}
@@ -0,0 +1,795 @@
+package service;
+
+import db.DatabaseConnection;
+import db.ShardMap;
+import model.Question;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * QuestionImporter - Bulk loader for question banks in CSV or JSON Lines files
+ * Pipeline:
+ *   1. the calling thread streams the file and cuts it into chunks of records
+ *   2. a parser pool splits fields, validates rows and drops duplicates
+ *   3. writer threads insert every chunk as a single multi-row INSERT in its own
+ *      transaction on a pooled connection (one INSERT per shard when sharded)
+ *
+ * Duplicates are detected by a hash of the normalized question text, checked
+ * against the file itself and against the rows already in the table.
+ *
+ * Progress is checkpointed to "file.progress" as the number of leading records
+ * whose chunks have all committed. A rerun after a failure skips those records.
+ * Rows committed past the checkpoint are caught by the duplicate check, so a
+ * resumed import never inserts a row twice.
+ *
+ * CSV needs a header row naming the columns (question, option1-4, correct_option,
+ * difficulty, topic) in any order; quoted fields may contain commas and newlines.
+ * JSON Lines needs one flat object per line with the same keys.
+ */
+public class QuestionImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_WRITERS = 4;
+    private static final long CHECKPOINT_INTERVAL_MS = 1_000;
+    private static final long REPORT_INTERVAL_MS = 5_000;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private static final String[] COLUMNS = {"question", "option1", "option2", "option3", "option4",
+        "correct_option", "difficulty", "topic"};
+    private static final String INSERT_PREFIX = "INSERT INTO questions (question, option1, option2, option3, "
+        + "option4, correct_option, difficulty, topic) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final int parsers;
+    private final int writers;
+    private final int batchSize;
+
+    // Per-import state
+    private Set<Long> seenHashes;
+    private BlockingQueue<Batch> writeQueue;
+    private AtomicReference<Exception> failure;
+    private Progress progress;
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+
+    public QuestionImporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_WRITERS, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param parsers parse/validate threads
+     * @param writers insert threads (each uses one pooled connection at a time)
+     * @param batchSize records per chunk and rows per INSERT
+     */
+    public QuestionImporter(int parsers, int writers, int batchSize) {
+        this.parsers = parsers;
+        this.writers = writers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import a .csv or .jsonl file, resuming from its checkpoint if one exists
+     * @return counts and throughput; the checkpoint is deleted on success
+     */
+    public Report importFile(Path file) throws IOException, SQLException {
+        boolean csv = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        Path checkpoint = file.resolveSibling(file.getFileName() + ".progress");
+        long skip = readCheckpoint(checkpoint, file);
+        if (skip > 0) {
+            System.out.println("↻ Resuming import of " + file + " after record " + skip);
+        }
+
+        long start = System.nanoTime();
+        seenHashes = loadExistingHashes();
+        writeQueue = new ArrayBlockingQueue<>(writers * 2);
+        failure = new AtomicReference<>();
+        progress = new Progress(checkpoint, file, skip);
+        inserted.set(0);
+        duplicates.set(0);
+        invalid.set(0);
+
+        List<Thread> writerThreads = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            Thread writer = new Thread(this::writeLoop, "question-import-writer-" + (i + 1));
+            writer.start();
+            writerThreads.add(writer);
+        }
+        ExecutorService parserPool = Executors.newFixedThreadPool(parsers, r -> {
+            Thread t = new Thread(r, "question-import-parser");
+            t.setDaemon(true);
+            return t;
+        });
+        // Bounds chunks held in memory between reader and writers
+        Semaphore inFlight = new Semaphore(parsers * 2 + writers * 2);
+
+        long records = skip;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Integer> header = csv ? readHeader(reader) : null;
+            String record;
+            // Skip records committed by an earlier run (split only, not parsed)
+            long skipped = 0;
+            while (skipped < skip && readRecord(reader, csv) != null) {
+                skipped++;
+            }
+
+            long sequence = 0;
+            long lastReport = System.currentTimeMillis();
+            List<String> chunk = new ArrayList<>(batchSize);
+            while (failure.get() == null && (record = readRecord(reader, csv)) != null) {
+                chunk.add(record);
+                records++;
+                if (chunk.size() == batchSize) {
+                    submitChunk(parserPool, inFlight, new Chunk(sequence++, records, chunk), header);
+                    chunk = new ArrayList<>(batchSize);
+                }
+                if (System.currentTimeMillis() - lastReport > REPORT_INTERVAL_MS) {
+                    lastReport = System.currentTimeMillis();
+                    System.out.printf("… %d records read, %d rows inserted (%.0f rows/s)%n", records,
+                        inserted.get(), inserted.get() / Math.max(1e-9, (System.nanoTime() - start) / 1e9));
+                }
+            }
+            if (!chunk.isEmpty() && failure.get() == null) {
+                submitChunk(parserPool, inFlight, new Chunk(sequence, records, chunk), header);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            // Let parsers finish, then stop writers once the queue is drained
+            parserPool.shutdown();
+            awaitQuietly(parserPool);
+            for (int i = 0; i < writers; i++) {
+                putQuietly(Batch.END);
+            }
+            for (Thread writer : writerThreads) {
+                joinQuietly(writer);
+            }
+            progress.checkpoint();
+        }
+
+        Exception error = failure.get();
+        if (error != null) {
+            System.err.println("✗ Import stopped; rerun to resume after record " + progress.committedRecords);
+            if (error instanceof SQLException) {
+                throw (SQLException) error;
+            }
+            throw new IOException("Import failed: " + error.getMessage(), error);
+        }
+        Files.deleteIfExists(checkpoint);
+        QuestionBank.getInstance().invalidate();
+
+        return new Report(records - skip, inserted.get(), duplicates.get(), invalid.get(),
+            System.nanoTime() - start);
+    }
+
+    private void submitChunk(ExecutorService pool, Semaphore inFlight, Chunk chunk, Map<String, Integer> header)
+            throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                parse(chunk, header);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Parser stage: fields, validation and duplicate check for one chunk
+     */
+    private void parse(Chunk chunk, Map<String, Integer> header) {
+        List<Question> rows = new ArrayList<>(chunk.records.size());
+        long recordNumber = chunk.lastRecord - chunk.records.size();
+        for (String record : chunk.records) {
+            recordNumber++;
+            try {
+                Question question = toQuestion(header != null ? csvFields(record, header) : jsonFields(record));
+                if (seenHashes.add(textHash(question.getQuestion()))) {
+                    rows.add(question);
+                } else {
+                    duplicates.incrementAndGet();
+                }
+            } catch (IllegalArgumentException e) {
+                if (invalid.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                    System.err.println("⚠ Skipping record " + recordNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        // Empty batches still go through so the checkpoint can advance past them
+        putQuietly(new Batch(chunk.sequence, chunk.lastRecord, rows));
+    }
+
+    /**
+     * Writer stage: one pooled connection per thread, one transaction per batch
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                Batch batch = writeQueue.take();
+                if (batch == Batch.END) {
+                    break;
+                }
+                if (failure.get() == null) {
+                    write(batch.rows);
+                    progress.complete(batch.sequence, batch.lastRecord);
+                }
+            }
+        } catch (SQLException | InterruptedException e) {
+            failure.compareAndSet(null, e);
+            // Keep draining so parsers blocked on the queue can finish
+            drainUntilEnd();
+        }
+    }
+
+    /**
+     * Insert a batch: one multi-row INSERT per shard (one in total when unsharded)
+     */
+    private void write(List<Question> rows) throws SQLException {
+        ShardMap shards = DatabaseConnection.getShardMap();
+        if (shards == null) {
+            if (!rows.isEmpty()) {
+                try (Connection connection = DatabaseConnection.getConnection()) {
+                    insert(connection, rows);
+                }
+            }
+            return;
+        }
+
+        Map<ShardMap.Shard, List<Question>> byShard = new LinkedHashMap<>();
+        for (Question question : rows) {
+            byShard.computeIfAbsent(shards.shardFor(question.getTopic()), s -> new ArrayList<>()).add(question);
+        }
+        for (Map.Entry<ShardMap.Shard, List<Question>> group : byShard.entrySet()) {
+            try (Connection connection = group.getKey().getConnection()) {
+                insert(connection, group.getValue());
+            }
+        }
+    }
+
+    private void insert(Connection connection, List<Question> rows) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(insertSql(rows.size()))) {
+            bind(stmt, rows);
+            stmt.executeUpdate();
+            connection.commit();
+            inserted.addAndGet(rows.size());
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, List<Question> rows) throws SQLException {
+        int p = 1;
+        for (Question q : rows) {
+            stmt.setString(p++, q.getQuestion());
+            stmt.setString(p++, q.getOption1());
+            stmt.setString(p++, q.getOption2());
+            stmt.setString(p++, q.getOption3());
+            stmt.setString(p++, q.getOption4());
+            stmt.setInt(p++, q.getCorrectOption());
+            stmt.setInt(p++, q.getDifficulty());
+            stmt.setString(p++, q.getTopic());
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Hashes of the question texts already in the table
+     */
+    private static Set<Long> loadExistingHashes() throws SQLException {
+        Set<Long> hashes = ConcurrentHashMap.newKeySet();
+        ShardMap shards = DatabaseConnection.getShardMap();
+        if (shards != null) {
+            // Every shard's rows, scanned in parallel
+            Map<ShardMap.Shard, List<String>> all = new LinkedHashMap<>();
+            for (ShardMap.Shard shard : shards.getShards()) {
+                all.put(shard, shard.getTopics());
+            }
+            shards.queryAll(all, (connection, topics) -> addHashes(connection, hashes));
+        } else {
+            try (Connection connection = DatabaseConnection.getConnection()) {
+                addHashes(connection, hashes);
+            }
+        }
+        return hashes;
+    }
+
+    private static Set<Long> addHashes(Connection connection, Set<Long> hashes) throws SQLException {
+        try (PreparedStatement stmt = QuestionLoader.prepareStreaming(connection, "SELECT question FROM questions");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String text = rs.getString(1);
+                if (text != null) {
+                    hashes.add(textHash(text));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * First 64 bits of SHA-256 over the trimmed, lower-cased, whitespace-collapsed text
+     */
+    private static long textHash(String text) {
+        String normalized = text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        byte[] digest = SHA256.get().digest(normalized.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = hash << 8 | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    // Parsing and validation
+
+    /**
+     * Build a question from named fields
+     * @throws IllegalArgumentException naming the first invalid field
+     */
+    private static Question toQuestion(Map<String, String> fields) {
+        String[] texts = new String[5];
+        for (int i = 0; i < texts.length; i++) {
+            String value = fields.get(COLUMNS[i]);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("missing " + COLUMNS[i]);
+            }
+            texts[i] = value.trim();
+        }
+        int correct = intField(fields, "correct_option", 1, 4);
+        int difficulty = intField(fields, "difficulty", QuestionIndex.MIN_DIFFICULTY, QuestionIndex.MAX_DIFFICULTY);
+        String topic = fields.get("topic");
+        if (topic == null || topic.isBlank()) {
+            throw new IllegalArgumentException("missing topic");
+        }
+        ShardMap shards = DatabaseConnection.getShardMap();
+        if (shards != null && shards.shardFor(topic.trim()) == null) {
+            throw new IllegalArgumentException("topic '" + topic.trim() + "' is not in the shard map");
+        }
+        return new Question(0, texts[0], texts[1], texts[2], texts[3], texts[4], correct, difficulty, topic.trim());
+    }
+
+    private static int intField(Map<String, String> fields, String name, int min, int max) {
+        String value = fields.get(name);
+        try {
+            int parsed = Integer.parseInt(value == null ? "" : value.trim());
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be " + min + "-" + max + ", got '" + value + "'");
+    }
+
+    /**
+     * Column name to index from the CSV header row
+     */
+    private static Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String line = readRecord(reader, true);
+        if (line == null) {
+            throw new IOException("CSV file is empty");
+        }
+        List<String> names = splitCsv(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : COLUMNS) {
+            if (!header.containsKey(column)) {
+                throw new IOException("CSV header has no '" + column + "' column");
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Next non-blank record; a CSV record continues over newlines inside quotes
+     */
+    private static String readRecord(BufferedReader reader, boolean csv) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        if (line == null || !csv || quoteCount(line) % 2 == 0) {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        int quotes = quoteCount(line);
+        while (quotes % 2 != 0 && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quotes += quoteCount(line);
+        }
+        return record.toString();
+    }
+
+    private static int quoteCount(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Map<String, String> csvFields(String record, Map<String, Integer> header) {
+        List<String> values = splitCsv(record);
+        Map<String, String> fields = new HashMap<>();
+        for (String column : COLUMNS) {
+            int index = header.get(column);
+            fields.put(column, index < values.size() ? values.get(index) : null);
+        }
+        return fields;
+    }
+
+    /**
+     * Split one CSV record (RFC 4180 quoting, "" for a literal quote)
+     */
+    private static List<String> splitCsv(String record) {
+        List<String> values = new ArrayList<>(COLUMNS.length);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Parse one flat JSON object; values are kept as text (numbers unquoted, null as null)
+     */
+    private static Map<String, String> jsonFields(String line) {
+        Map<String, String> fields = new HashMap<>();
+        int[] pos = {skipSpace(line, 0)};
+        expect(line, pos, '{');
+        if (peek(line, pos) == '}') {
+            return fields;
+        }
+        while (true) {
+            String key = jsonString(line, pos);
+            expect(line, pos, ':');
+            String value;
+            if (peek(line, pos) == '"') {
+                value = jsonString(line, pos);
+            } else {
+                int from = pos[0];
+                while (pos[0] < line.length() && ",}".indexOf(line.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = line.substring(from, pos[0]).trim();
+                if (value.equals("null")) {
+                    value = null;
+                } else if (value.isEmpty() || value.startsWith("{") || value.startsWith("[")) {
+                    throw new IllegalArgumentException("unsupported value for " + key);
+                }
+            }
+            fields.put(key.toLowerCase(Locale.ROOT), value);
+            char next = peek(line, pos);
+            pos[0]++;
+            if (next == '}') {
+                return fields;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("malformed JSON near position " + pos[0]);
+            }
+        }
+    }
+
+    private static String jsonString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < line.length()) {
+            char c = line.charAt(pos[0]++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= line.length()) {
+                break;
+            }
+            char escaped = line.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > line.length()) {
+                        throw new IllegalArgumentException("malformed \\u escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("malformed \\u escape");
+                    }
+                    pos[0] += 4;
+                    break;
+                default: sb.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("unterminated JSON string");
+    }
+
+    private static void expect(String line, int[] pos, char c) {
+        if (peek(line, pos) != c) {
+            throw new IllegalArgumentException("malformed JSON: expected '" + c + "' at position " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static char peek(String line, int[] pos) {
+        pos[0] = skipSpace(line, pos[0]);
+        return pos[0] < line.length() ? line.charAt(pos[0]) : '\0';
+    }
+
+    private static int skipSpace(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    // Checkpoints
+
+    /**
+     * Records already committed by an earlier run, or 0 if there is no usable checkpoint
+     */
+    private static long readCheckpoint(Path checkpoint, Path file) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        Properties props = new Properties();
+        try (BufferedReader in = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        if (!String.valueOf(Files.size(file)).equals(props.getProperty("size"))) {
+            System.err.println("⚠ " + file + " changed since the last run; ignoring checkpoint "
+                + "(duplicates are still skipped)");
+            return 0;
+        }
+        return Long.parseLong(props.getProperty("records", "0"));
+    }
+
+    private void putQuietly(Batch batch) {
+        try {
+            while (!writeQueue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                // keep waiting; writers drain the queue even after a failure
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private void drainUntilEnd() {
+        try {
+            while (writeQueue.take() != Batch.END) {
+                // discard
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(ExecutorService pool) {
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Chunk - Consecutive raw records, numbered so completion can be checkpointed
+     */
+    private static final class Chunk {
+
+        final long sequence;
+        final long lastRecord;
+        final List<String> records;
+
+        Chunk(long sequence, long lastRecord, List<String> records) {
+            this.sequence = sequence;
+            this.lastRecord = lastRecord;
+            this.records = records;
+        }
+    }
+
+    /**
+     * Batch - Validated, de-duplicated rows of one chunk
+     */
+    private static final class Batch {
+
+        static final Batch END = new Batch(-1, -1, new ArrayList<>());
+
+        final long sequence;
+        final long lastRecord;
+        final List<Question> rows;
+
+        Batch(long sequence, long lastRecord, List<Question> rows) {
+            this.sequence = sequence;
+            this.lastRecord = lastRecord;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Progress - Highest record count whose chunks have all committed
+     * Chunks finish out of order; the watermark only advances over a contiguous prefix.
+     */
+    private static final class Progress {
+
+        private final Path checkpoint;
+        private final Path file;
+        private final TreeMap<Long, Long> finished = new TreeMap<>();
+        private long nextSequence;
+        private volatile long committedRecords;
+        private long lastCheckpoint = System.currentTimeMillis();
+
+        Progress(Path checkpoint, Path file, long committedRecords) {
+            this.checkpoint = checkpoint;
+            this.file = file;
+            this.committedRecords = committedRecords;
+        }
+
+        synchronized void complete(long sequence, long lastRecord) {
+            finished.put(sequence, lastRecord);
+            while (finished.containsKey(nextSequence)) {
+                committedRecords = finished.remove(nextSequence);
+                nextSequence++;
+            }
+            if (System.currentTimeMillis() - lastCheckpoint > CHECKPOINT_INTERVAL_MS) {
+                checkpoint();
+            }
+        }
+
+        /**
+         * Write the watermark atomically (temp file, then move)
+         */
+        synchronized void checkpoint() {
+            lastCheckpoint = System.currentTimeMillis();
+            Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try {
+                try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    out.write("records=" + committedRecords + "\n");
+                    out.write("size=" + Files.size(file) + "\n");
+                }
+                Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("✗ Could not write import checkpoint " + checkpoint + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Report - Outcome of one import run
+     */
+    public static final class Report {
+
+        private final long records;
+        private final long inserted;
+        private final long duplicates;
+        private final long invalid;
+        private final long elapsedNanos;
+
+        Report(long records, long inserted, long duplicates, long invalid, long elapsedNanos) {
+            this.records = records;
+            this.inserted = inserted;
+            this.duplicates = duplicates;
+            this.invalid = invalid;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public double getRowsPerSecond() {
+            return records / Math.max(1e-9, elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records in %.1f s (%.0f rows/s): inserted=%d duplicates=%d invalid=%d",
+                records, elapsedNanos / 1e9, getRowsPerSecond(), inserted, duplicates, invalid);
+        }
+    }
+}
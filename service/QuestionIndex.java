@@ -0,0 +1,199 @@
+package service;
+
+import model.Question;
+import model.QuestionStore;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * QuestionIndex - Difficulty-bucketed pool of questions for one quiz session
+ * Supports O(1) random pick-and-remove and O(1) fallback to adjacent difficulties
+ *
+ * Each bucket is an int array of rows in a shared QuestionStore, shuffled once when
+ * the index is built. Picking takes the last live slot and shrinks the bucket, so no
+ * scanning is needed; the only allocation is the small Question view that is returned.
+ * Because the order is fixed up front, upcomingIds() can tell a header-only pool
+ * which bodies to fetch before they are asked for.
+ */
+public class QuestionIndex {
+
+    public static final int MIN_DIFFICULTY = 1;
+    public static final int MAX_DIFFICULTY = 3;
+
+    private final QuestionStore store;
+    private final int[][] buckets;
+    private final int[] sizes;
+    private final Random random;
+    private int remaining;
+
+    /**
+     * Build index over a list of questions
+     */
+    public QuestionIndex(List<Question> questions) {
+        this(QuestionStore.of(questions), null);
+    }
+
+    /**
+     * Build index over every row of a store (store is shared, not copied)
+     */
+    public QuestionIndex(QuestionStore store, Random random) {
+        this(store, allPositions(store.size()), random);
+    }
+
+    /**
+     * Build index over selected rows of a shared store
+     * Used for per-session views of the shared QuestionBank
+     * @param random source of randomness, or null to use ThreadLocalRandom
+     */
+    public QuestionIndex(QuestionStore store, int[] positions, Random random) {
+        this.store = store;
+        this.random = random;
+        this.buckets = new int[MAX_DIFFICULTY + 1][];
+        this.sizes = new int[MAX_DIFFICULTY + 1];
+
+        // Count per difficulty first so each bucket is allocated exactly once
+        for (int position : positions) {
+            sizes[bucketOf(store.getDifficulty(position))]++;
+        }
+        for (int d = 0; d <= MAX_DIFFICULTY; d++) {
+            buckets[d] = new int[sizes[d]];
+            sizes[d] = 0;
+        }
+        for (int position : positions) {
+            int d = bucketOf(store.getDifficulty(position));
+            buckets[d][sizes[d]++] = position;
+        }
+        for (int d = 0; d <= MAX_DIFFICULTY; d++) {
+            shuffle(buckets[d]);
+        }
+        this.remaining = positions.length;
+    }
+
+    /**
+     * Pick and remove a random question for the given difficulty
+     * Falls back to adjacent difficulties, then to any remaining question
+     * @return Question object or null if the index is empty
+     */
+    public Question next(int difficulty) {
+        if (remaining == 0) {
+            return null;
+        }
+
+        int d = bucketOf(difficulty);
+
+        // Exact difficulty match
+        if (sizes[d] > 0) {
+            return take(d);
+        }
+
+        // Adjacent difficulties, chosen in proportion to their size
+        int lower = d - 1 >= MIN_DIFFICULTY ? sizes[d - 1] : 0;
+        int upper = d + 1 <= MAX_DIFFICULTY ? sizes[d + 1] : 0;
+        if (lower + upper > 0) {
+            return nextInt(lower + upper) < lower ? take(d - 1) : take(d + 1);
+        }
+
+        // Fallback: any remaining question (includes out-of-range difficulties)
+        int r = nextInt(remaining);
+        for (int b = 0; b <= MAX_DIFFICULTY; b++) {
+            if (r < sizes[b]) {
+                return take(b);
+            }
+            r -= sizes[b];
+        }
+        return null;
+    }
+
+    /**
+     * Ids of the questions likely to be served next, without removing them:
+     * the head of this difficulty's queue plus one from each adjacent level,
+     * in case the next answer moves the difficulty
+     * @return number of ids written to out
+     */
+    public int upcomingIds(int difficulty, int[] out) {
+        int d = bucketOf(difficulty);
+        int count = copyNext(d, out, 0, out.length - 2);
+        if (d + 1 <= MAX_DIFFICULTY) {
+            count = copyNext(d + 1, out, count, count + 1);
+        }
+        if (d - 1 >= MIN_DIFFICULTY) {
+            count = copyNext(d - 1, out, count, count + 1);
+        }
+        return count;
+    }
+
+    /**
+     * True if served questions carry their texts; false for a header-only pool
+     */
+    public boolean hasBodies() {
+        return store.hasBodies();
+    }
+
+    /**
+     * Number of questions not yet served
+     */
+    public int size() {
+        return remaining;
+    }
+
+    public boolean isEmpty() {
+        return remaining == 0;
+    }
+
+    /**
+     * Number of questions not yet served at a difficulty level
+     */
+    public int size(int difficulty) {
+        return sizes[bucketOf(difficulty)];
+    }
+
+    /**
+     * Remove the last live slot of a bucket
+     */
+    private Question take(int bucket) {
+        int slot = buckets[bucket][--sizes[bucket]];
+        remaining--;
+        return store.get(slot);
+    }
+
+    private int copyNext(int bucket, int[] out, int count, int max) {
+        int[] slots = buckets[bucket];
+        for (int i = sizes[bucket] - 1; i >= 0 && count < max; i--) {
+            out[count++] = store.getId(slots[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Fisher-Yates shuffle
+     */
+    private void shuffle(int[] slots) {
+        for (int i = slots.length - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            int tmp = slots[i];
+            slots[i] = slots[j];
+            slots[j] = tmp;
+        }
+    }
+
+    private int nextInt(int bound) {
+        return random != null ? random.nextInt(bound) : ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    private static int[] allPositions(int count) {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Bucket 0 collects questions whose difficulty is outside 1-3
+     */
+    static int bucketOf(int difficulty) {
+        return difficulty >= MIN_DIFFICULTY && difficulty <= MAX_DIFFICULTY ? difficulty : 0;
+    }
+}
@@ -0,0 +1,171 @@
+package service;
+
+import model.QuestionStore;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QuestionLoadCoalescer - Single-flight question loads keyed by the normalized topic set
+ * The first caller for a topic set runs the query; callers that arrive while it is in
+ * flight wait for the same result instead of issuing an identical query. The result is
+ * shared read-only, so each caller builds its own shuffled QuestionIndex over it.
+ * Nothing is cached once the load completes: the next caller starts a fresh load.
+ *
+ * At most maxConcurrentLoads distinct topic sets are loaded at once
+ * (-Dquiz.load.maxConcurrent); further leaders wait for a slot.
+ */
+public class QuestionLoadCoalescer {
+
+    public static final int DEFAULT_MAX_CONCURRENT_LOADS = Integer.getInteger("quiz.load.maxConcurrent", 4);
+
+    private final ConcurrentHashMap<List<String>, CompletableFuture<QuestionStore>> inFlight =
+        new ConcurrentHashMap<>();
+    private final Semaphore loadPermits;
+    private final int maxConcurrentLoads;
+
+    // Statistics
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public QuestionLoadCoalescer(int maxConcurrentLoads) {
+        if (maxConcurrentLoads < 1) {
+            throw new IllegalArgumentException("maxConcurrentLoads must be positive: " + maxConcurrentLoads);
+        }
+        this.maxConcurrentLoads = maxConcurrentLoads;
+        this.loadPermits = new Semaphore(maxConcurrentLoads, true);
+    }
+
+    /**
+     * Load the questions of a topic set, joining an identical load already in flight
+     * @param topics selected topics, in any order and possibly repeated (empty = all topics)
+     * @param loader runs the query for the normalized topics
+     * @throws IllegalStateException if a load this call joined failed with a runtime exception (its cause)
+     */
+    public QuestionStore load(List<String> topics, Loader loader) throws SQLException {
+        List<String> key = normalize(topics);
+        CompletableFuture<QuestionStore> mine = new CompletableFuture<>();
+        CompletableFuture<QuestionStore> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            loadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SQLException failure = new SQLException("Interrupted while waiting for a question load slot", e);
+            finish(key, mine, null, failure);
+            throw failure;
+        }
+        try {
+            executed.incrementAndGet();
+            QuestionStore store = loader.load(key);
+            finish(key, mine, store, null);
+            return store;
+        } catch (SQLException | RuntimeException e) {
+            failed.incrementAndGet();
+            finish(key, mine, null, e);
+            throw e;
+        } finally {
+            loadPermits.release();
+        }
+    }
+
+    /**
+     * Publish the outcome to waiting callers and let the next caller start a new load
+     */
+    private void finish(List<String> key, CompletableFuture<QuestionStore> mine, QuestionStore store,
+                        Exception failure) {
+        inFlight.remove(key, mine);
+        if (failure != null) {
+            mine.completeExceptionally(failure);
+        } else {
+            mine.complete(store);
+        }
+    }
+
+    private static QuestionStore await(CompletableFuture<QuestionStore> load) throws SQLException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a coalesced question load", e);
+        } catch (ExecutionException e) {
+            // Wrap so each waiter's stack trace shows its own call site; the leader's is the cause
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw new IllegalStateException("Coalesced question load failed: " + cause.getMessage(), cause);
+            }
+            throw new SQLException("Coalesced question load failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Sorted, de-duplicated topic list; equal selections give equal keys
+     */
+    static List<String> normalize(List<String> topics) {
+        return Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(topics)));
+    }
+
+    // Statistics
+
+    /**
+     * Loads that ran a query
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * Calls served by another caller's in-flight load
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Leaders waiting for a load slot
+     */
+    public int getQueuedCount() {
+        return loadPermits.getQueueLength();
+    }
+
+    public int getMaxConcurrentLoads() {
+        return maxConcurrentLoads;
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("loads executed=%d coalesced=%d failed=%d inFlight=%d queued=%d max=%d",
+            getExecutedCount(), getCoalescedCount(), getFailedCount(), getInFlightCount(), getQueuedCount(),
+            maxConcurrentLoads);
+    }
+
+    /**
+     * Loader - Runs the query for one normalized topic set
+     */
+    public interface Loader {
+        QuestionStore load(List<String> topics) throws SQLException;
+    }
+}
@@ -0,0 +1,291 @@
+package service;
+
+import db.ShardMap;
+import model.Question;
+import model.QuestionStore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * QuestionLoader - Loads a bounded random sample of questions for a quiz session
+ * Replaces "SELECT * ... ORDER BY RAND()" with a two-pass streaming load:
+ *   1. stream (id, topic, difficulty) and keep a reservoir sample per topic/difficulty
+ *   2. fetch full rows only for the sampled ids, in batches
+ *
+ * Reservoir sampling keeps every row in a bucket equally likely to be chosen,
+ * and QuestionIndex serves the sample in random order, so sessions see the same
+ * distribution as the old shuffled full load without sorting or materializing the table.
+ */
+public class QuestionLoader {
+
+    public static final int DEFAULT_PER_BUCKET = 25;
+    public static final int FETCH_SIZE = 500;
+    private static final int BODY_BATCH_SIZE = 200;
+
+    private final int perBucket;
+    private final Random random;
+
+    /**
+     * @param perBucket max questions per topic per difficulty (0 = no limit)
+     */
+    public QuestionLoader(int perBucket) {
+        this(perBucket, new Random());
+    }
+
+    public QuestionLoader(int perBucket, Random random) {
+        this.perBucket = perBucket;
+        this.random = random;
+    }
+
+    /**
+     * Load a random sample of questions for the given topics (empty = all topics)
+     */
+    public List<Question> loadSample(Connection connection, List<String> topics) throws SQLException {
+        List<Integer> ids = sampleIds(connection, topics);
+        return loadByIds(connection, ids);
+    }
+
+    /**
+     * Sample from each shard that holds a selected topic, in parallel, and merge
+     * @param topics selected topics (empty = all mapped topics)
+     */
+    public List<Question> loadSample(ShardMap shards, List<String> topics) throws SQLException {
+        List<Question> merged = new ArrayList<>();
+        for (List<Question> part : shards.queryAll(shards.groupByShard(topics), this::loadSample)) {
+            merged.addAll(part);
+        }
+        return merged;
+    }
+
+    /**
+     * Stream every question in the bank into a compact store (used to fill the
+     * shared QuestionBank); rows go straight into the columns, no Question objects
+     */
+    public static QuestionStore loadAll(Connection connection) throws SQLException {
+        return loadAll(connection, Collections.emptyList());
+    }
+
+    /**
+     * Load every shard's topics in parallel and merge them into one store
+     */
+    public static QuestionStore loadAll(ShardMap shards) throws SQLException {
+        List<QuestionStore> parts = shards.queryAll(shards.groupByShard(Collections.emptyList()),
+            QuestionLoader::loadAll);
+        int rows = 0;
+        for (QuestionStore part : parts) {
+            rows += part.size();
+        }
+        QuestionStore.Builder builder = new QuestionStore.Builder(rows);
+        for (QuestionStore part : parts) {
+            for (int row = 0; row < part.size(); row++) {
+                builder.add(part.get(row));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Stream the questions of the given topics (empty = all) into a compact store
+     */
+    private static QuestionStore loadAll(Connection connection, List<String> topics) throws SQLException {
+        String query = "SELECT id, question, option1, option2, option3, option4, correct_option, difficulty, topic"
+            + " FROM questions" + topicFilter(topics);
+        QuestionStore.Builder builder = new QuestionStore.Builder();
+
+        try (PreparedStatement stmt = prepareStreaming(connection, query)) {
+            for (int i = 0; i < topics.size(); i++) {
+                stmt.setString(i + 1, topics.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(
+                        rs.getInt("id"),
+                        rs.getString("question"),
+                        rs.getString("option1"),
+                        rs.getString("option2"),
+                        rs.getString("option3"),
+                        rs.getString("option4"),
+                        rs.getInt("correct_option"),
+                        rs.getInt("difficulty"),
+                        rs.getString("topic"));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Stream only (id, difficulty, topic) of every question into a header-only store;
+     * texts are fetched later, a few at a time, through QuestionBodyCache
+     */
+    public static QuestionStore loadHeaders(Connection connection) throws SQLException {
+        QuestionStore.Builder builder = QuestionStore.Builder.headersOnly(1024);
+
+        try (PreparedStatement stmt = prepareStreaming(connection, "SELECT id, difficulty, topic FROM questions");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                builder.addHeader(rs.getInt(1), rs.getInt(2), rs.getString(3));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Pass 1: stream question headers and reservoir-sample ids per topic/difficulty
+     */
+    private List<Integer> sampleIds(Connection connection, List<String> topics) throws SQLException {
+        String query = "SELECT id, topic, difficulty FROM questions" + topicFilter(topics);
+        Map<String, Reservoir[]> reservoirs = new HashMap<>();
+
+        try (PreparedStatement stmt = prepareStreaming(connection, query)) {
+            for (int i = 0; i < topics.size(); i++) {
+                stmt.setString(i + 1, topics.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    String topic = rs.getString(2);
+                    int difficulty = rs.getInt(3);
+
+                    Reservoir[] byDifficulty = reservoirs.computeIfAbsent(topic,
+                        t -> new Reservoir[QuestionIndex.MAX_DIFFICULTY + 1]);
+                    int d = QuestionIndex.bucketOf(difficulty);
+                    if (byDifficulty[d] == null) {
+                        byDifficulty[d] = new Reservoir(perBucket);
+                    }
+                    byDifficulty[d].offer(id, random);
+                }
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (Reservoir[] byDifficulty : reservoirs.values()) {
+            for (Reservoir reservoir : byDifficulty) {
+                if (reservoir != null) {
+                    reservoir.drainTo(ids);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Pass 2: fetch full rows for the given ids in fixed-size batches
+     */
+    public static List<Question> loadByIds(Connection connection, List<Integer> ids) throws SQLException {
+        List<Question> questions = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += BODY_BATCH_SIZE) {
+            int to = Math.min(from + BODY_BATCH_SIZE, ids.size());
+            String query = "SELECT id, question, option1, option2, option3, option4, correct_option, difficulty, topic"
+                + " FROM questions WHERE id IN (" + placeholders(to - from) + ")";
+
+            try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                for (int i = from; i < to; i++) {
+                    stmt.setInt(i - from + 1, ids.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        questions.add(mapRow(rs));
+                    }
+                }
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Build a Question from the current row of a questions result set
+     */
+    public static Question mapRow(ResultSet rs) throws SQLException {
+        return new Question(
+            rs.getInt("id"),
+            rs.getString("question"),
+            rs.getString("option1"),
+            rs.getString("option2"),
+            rs.getString("option3"),
+            rs.getString("option4"),
+            rs.getInt("correct_option"),
+            rs.getInt("difficulty"),
+            rs.getString("topic")
+        );
+    }
+
+    /**
+     * Prepare a forward-only, read-only statement that streams rows in chunks
+     * (MySQL honours the fetch size when the URL sets useCursorFetch=true)
+     */
+    public static PreparedStatement prepareStreaming(Connection connection, String query) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(query,
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(FETCH_SIZE);
+        return stmt;
+    }
+
+    /**
+     * " WHERE topic IN (?, ...)" for a non-empty topic list, "" otherwise
+     */
+    static String topicFilter(List<String> topics) {
+        return topics.isEmpty() ? "" : " WHERE topic IN (" + placeholders(topics.size()) + ")";
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reservoir - Fixed-size uniform sample over a stream of ids (Algorithm R)
+     */
+    private static final class Reservoir {
+
+        private final int capacity;
+        private int[] ids;
+        private int size;
+        private int seen;
+
+        Reservoir(int capacity) {
+            this.capacity = capacity;
+            this.ids = new int[capacity > 0 ? capacity : 16];
+        }
+
+        void offer(int id, Random random) {
+            seen++;
+            if (capacity <= 0 || size < capacity) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = id;
+            } else {
+                // Replace with probability capacity/seen
+                int slot = random.nextInt(seen);
+                if (slot < capacity) {
+                    ids[slot] = id;
+                }
+            }
+        }
+
+        void drainTo(List<Integer> out) {
+            for (int i = 0; i < size; i++) {
+                out.add(ids[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package service;
+
+import db.DatabaseConnection;
+import db.ShardMap;
+import metrics.MetricsRegistry;
+import model.Question;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QuestionStats - Attempts, correct answers and time-to-answer per question, across all sessions
+ * Each question's counters are LongAdders, which stripe updates over per-thread cells, so
+ * concurrent sessions answering the same question never lock or retry on one word.
+ * Counters live in an open-addressing table keyed by the primitive question key, so once
+ * a question has been answered the hot path is a lock-free probe plus three adds and
+ * allocates nothing.
+ *
+ * A background thread periodically moves the counts accumulated since the last flush
+ * into the question_stats table in multi-row upserts (on each question's own shard when
+ * sharded, since ids are only unique within a shard). A failed flush puts its counts
+ * back so they go out with the next one. Readers see totals recorded by this process.
+ */
+public class QuestionStats {
+
+    public static final long FLUSH_INTERVAL_MS = Long.getLong("quiz.stats.flushMillis", 30_000);
+    public static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_PREFIX =
+        "INSERT INTO question_stats (question_id, attempts, correct_answers, answer_millis) VALUES ";
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE attempts = attempts + VALUES(attempts),"
+        + " correct_answers = correct_answers + VALUES(correct_answers),"
+        + " answer_millis = answer_millis + VALUES(answer_millis)";
+
+    private static volatile QuestionStats instance = null;
+
+    private final ShardMap shards;
+    private final CounterTable counters = new CounterTable();
+    private final ScheduledExecutorService flusher;
+
+    // Statistics
+    private final LongAdder recorded = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsFlushed = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    /**
+     * @param shards shard map the questions come from, or null for a single database
+     * @param flushIntervalMillis interval between background flushes (0 = flush only on demand)
+     */
+    public QuestionStats(ShardMap shards, long flushIntervalMillis) {
+        this.shards = shards;
+        if (flushIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "question-stats-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Shared stats, flushing in the background once started
+     * Called on every answer, so the started case takes no lock
+     */
+    public static QuestionStats getInstance() {
+        QuestionStats current = instance;
+        return current != null ? current : start();
+    }
+
+    private static synchronized QuestionStats start() {
+        if (instance == null) {
+            ShardMap shards;
+            try {
+                shards = DatabaseConnection.getShardMap();
+            } catch (IllegalStateException e) {
+                shards = null;
+            }
+            instance = new QuestionStats(shards, FLUSH_INTERVAL_MS);
+
+            QuestionStats stats = instance;
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.gauge("quiz_question_stats_tracked", stats::getTrackedCount);
+            metrics.gauge("quiz_question_stats_answers_total", stats::getRecordedCount);
+            metrics.gauge("quiz_question_stats_rows_flushed", stats::getRowsFlushed);
+            metrics.gauge("quiz_question_stats_flush_failures", stats::getFlushFailures);
+        }
+        return instance;
+    }
+
+    /**
+     * Stop the shared stats if they were started, flushing what is pending
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Count one answer to a question
+     * @param answerNanos time from serving the question to the answer
+     */
+    public void record(Question question, boolean correct, long answerNanos) {
+        long key = key(question);
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.getOrCreate(key);
+        }
+        counter.attempts.increment();
+        if (correct) {
+            counter.correct.increment();
+        }
+        counter.answerMillis.add(TimeUnit.NANOSECONDS.toMillis(answerNanos));
+        recorded.increment();
+    }
+
+    /**
+     * Current totals for a question (zeros if it has not been answered)
+     */
+    public Stats get(Question question) {
+        long key = key(question);
+        Counter counter = counters.get(key);
+        return counter == null ? new Stats(question.getId(), shardIndex(key), 0, 0, 0) : counter.totals(key);
+    }
+
+    /**
+     * Current totals of every answered question, in no particular order
+     */
+    public List<Stats> getAll() {
+        List<Stats> all = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> all.add(counter.totals(key)));
+        return all;
+    }
+
+    /**
+     * Write the counts gathered since the last flush, one transaction per database
+     * @return number of question rows upserted
+     * @throws SQLException the first database failure; failed counts are kept for the next flush
+     */
+    public synchronized int flush() throws SQLException {
+        // Take each counter's pending counts; updates racing with this land in the next flush
+        Map<Integer, List<Delta>> byShard = new HashMap<>();
+        counters.forEach((key, counter) -> {
+            long attempts = counter.attempts.sumThenReset();
+            long correct = counter.correct.sumThenReset();
+            long millis = counter.answerMillis.sumThenReset();
+            if (attempts != 0 || correct != 0 || millis != 0) {
+                byShard.computeIfAbsent(shardIndex(key), s -> new ArrayList<>())
+                    .add(new Delta(key, counter, attempts, correct, millis));
+            }
+        });
+
+        int rows = 0;
+        SQLException failure = null;
+        for (Map.Entry<Integer, List<Delta>> group : byShard.entrySet()) {
+            List<Delta> deltas = group.getValue();
+            try (Connection connection = shards != null
+                    ? shards.getShards().get(group.getKey()).getConnection() : DatabaseConnection.getConnection()) {
+                write(connection, deltas);
+                for (Delta delta : deltas) {
+                    delta.counter.addFlushed(delta);
+                }
+                rows += deltas.size();
+            } catch (SQLException e) {
+                for (Delta delta : deltas) {
+                    delta.counter.restore(delta);
+                }
+                flushFailures.incrementAndGet();
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        flushes.incrementAndGet();
+        rowsFlushed.addAndGet(rows);
+        if (failure != null) {
+            throw failure;
+        }
+        return rows;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            System.err.println("✗ Question stats flush failed, retrying next interval: " + e.getMessage());
+        }
+    }
+
+    private static void write(Connection connection, List<Delta> deltas) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            for (int from = 0; from < deltas.size(); from += BATCH_SIZE) {
+                int to = Math.min(from + BATCH_SIZE, deltas.size());
+                StringBuilder sql = new StringBuilder(UPSERT_PREFIX);
+                for (int i = from; i < to; i++) {
+                    sql.append(i == from ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(sql.append(UPSERT_SUFFIX).toString())) {
+                    int p = 1;
+                    for (int i = from; i < to; i++) {
+                        Delta delta = deltas.get(i);
+                        stmt.setInt(p++, (int) delta.key);
+                        stmt.setLong(p++, delta.attempts);
+                        stmt.setLong(p++, delta.correct);
+                        stmt.setLong(p++, delta.millis);
+                    }
+                    stmt.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Stop background flushing and write what is pending
+     */
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        try {
+            int rows = flush();
+            System.out.println("✓ Question stats flushed (" + rows + " questions)");
+        } catch (SQLException e) {
+            System.err.println("✗ Question stats lost on shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Same key as AnswerSource.questionKey, so stats line up with calibration results
+     */
+    private long key(Question question) {
+        return AnswerSource.questionKey(shards == null ? 0 : shards.indexFor(question.getTopic()), question.getId());
+    }
+
+    private static int shardIndex(long key) {
+        return (int) (key >>> 32);
+    }
+
+    // Statistics
+
+    /**
+     * Distinct questions answered since start
+     */
+    public int getTrackedCount() {
+        return counters.size();
+    }
+
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getRowsFlushed() {
+        return rowsFlushed.get();
+    }
+
+    public long getFlushFailures() {
+        return flushFailures.get();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("questionStats tracked=%d answers=%d flushes=%d rowsFlushed=%d failures=%d",
+            getTrackedCount(), getRecordedCount(), getFlushCount(), getRowsFlushed(), getFlushFailures());
+    }
+
+    /**
+     * Counter - Pending counts since the last flush plus the totals already flushed
+     * Flushed totals are written only by the (synchronized) flush; a reader racing a
+     * flush can briefly see totals that are missing the batch being written.
+     */
+    private static final class Counter {
+
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder correct = new LongAdder();
+        private final LongAdder answerMillis = new LongAdder();
+        private volatile long flushedAttempts;
+        private volatile long flushedCorrect;
+        private volatile long flushedMillis;
+
+        void addFlushed(Delta delta) {
+            flushedAttempts += delta.attempts;
+            flushedCorrect += delta.correct;
+            flushedMillis += delta.millis;
+        }
+
+        void restore(Delta delta) {
+            attempts.add(delta.attempts);
+            correct.add(delta.correct);
+            answerMillis.add(delta.millis);
+        }
+
+        Stats totals(long key) {
+            return new Stats((int) key, shardIndex(key), flushedAttempts + attempts.sum(),
+                flushedCorrect + correct.sum(), flushedMillis + answerMillis.sum());
+        }
+    }
+
+    /**
+     * CounterTable - Open-addressing map from question key to Counter, read without locks or boxing
+     * Inserts take the table's lock. A slot's key is written before its counter is published, and
+     * a resize publishes a complete new table, so a reader never sees a half-made entry; a reader
+     * still on a replaced table misses only new keys and falls back to getOrCreate.
+     */
+    private static final class CounterTable {
+
+        private volatile Slots slots = new Slots(64);
+        private volatile int size;
+
+        /**
+         * Counter for a key, or null if none yet
+         */
+        Counter get(long key) {
+            Slots table = slots;
+            int mask = table.keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                Counter counter = table.counters.get(i);
+                if (counter == null || table.keys[i] == key) {
+                    return counter;
+                }
+            }
+        }
+
+        synchronized Counter getOrCreate(long key) {
+            Counter counter = get(key);
+            if (counter != null) {
+                return counter;
+            }
+            if ((size + 1) * 2 > slots.keys.length) {
+                Slots grown = new Slots(slots.keys.length * 2);
+                slots.forEach(grown::put);
+                slots = grown;
+            }
+            counter = new Counter();
+            slots.put(key, counter);
+            size++;
+            return counter;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(Visitor visitor) {
+            slots.forEach(visitor);
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        interface Visitor {
+            void visit(long key, Counter counter);
+        }
+
+        private static final class Slots {
+
+            private final long[] keys;
+            private final AtomicReferenceArray<Counter> counters;
+
+            Slots(int capacity) {
+                keys = new long[capacity];
+                counters = new AtomicReferenceArray<>(capacity);
+            }
+
+            /**
+             * Caller holds the table lock and has checked the key is absent
+             */
+            void put(long key, Counter counter) {
+                int mask = keys.length - 1;
+                int i = hash(key) & mask;
+                while (counters.get(i) != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                counters.set(i, counter); // volatile store publishes the key with it
+            }
+
+            void forEach(Visitor visitor) {
+                for (int i = 0; i < keys.length; i++) {
+                    Counter counter = counters.get(i);
+                    if (counter != null) {
+                        visitor.visit(keys[i], counter);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Delta {
+
+        private final long key;
+        private final Counter counter;
+        private final long attempts;
+        private final long correct;
+        private final long millis;
+
+        Delta(long key, Counter counter, long attempts, long correct, long millis) {
+            this.key = key;
+            this.counter = counter;
+            this.attempts = attempts;
+            this.correct = correct;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * Stats - Point-in-time totals for one question
+     */
+    public static final class Stats {
+
+        private final int questionId;
+        private final int shardIndex;
+        private final long attempts;
+        private final long correctAnswers;
+        private final long answerMillis;
+
+        Stats(int questionId, int shardIndex, long attempts, long correctAnswers, long answerMillis) {
+            this.questionId = questionId;
+            this.shardIndex = shardIndex;
+            this.attempts = attempts;
+            this.correctAnswers = correctAnswers;
+            this.answerMillis = answerMillis;
+        }
+
+        public int getQuestionId() {
+            return questionId;
+        }
+
+        /**
+         * Index of the question's shard (0 without a shard map)
+         */
+        public int getShardIndex() {
+            return shardIndex;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        public long getCorrectAnswers() {
+            return correctAnswers;
+        }
+
+        /**
+         * Share of attempts answered correctly (0 if never attempted)
+         */
+        public double getCorrectRate() {
+            return attempts == 0 ? 0 : (double) correctAnswers / attempts;
+        }
+
+        public double getAverageAnswerMillis() {
+            return attempts == 0 ? 0 : (double) answerMillis / attempts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("question %d: %d attempts, %.1f%% correct, %.0f ms avg", questionId, attempts,
+                getCorrectRate() * 100, getAverageAnswerMillis());
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package service;
+
+import db.DatabaseConnection;
+import db.ShardMap;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Question;
+import model.QuestionStore;
+import model.QuizResult;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QuizEngine - Shared, stateless quiz logic (AI-based difficulty management)
+ * Handles: question selection, adaptive difficulty, scoring and result storage
+ * for any number of QuizSession objects. Holds no per-user state, so one instance
+ * serves every session in the JVM.
+ */
+public class QuizEngine {
+    
+    // AI rule parameters
+    public static final int POINTS_PER_LEVEL = 10;
+    public static final int CORRECT_STREAK_TO_LEVEL_UP = 3;
+    public static final int WRONG_STREAK_TO_LEVEL_DOWN = 2;
+    
+    // Process-wide metrics; recording is allocation-free
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LatencyHistogram LOAD_LATENCY = METRICS.histogram("quiz_load_questions_seconds");
+    private static final LatencyHistogram NEXT_LATENCY = METRICS.histogram("quiz_next_question_seconds");
+    private static final LatencyHistogram ANSWER_LATENCY = METRICS.histogram("quiz_process_answer_seconds");
+    private static final LatencyHistogram SAVE_LATENCY = METRICS.histogram("quiz_save_result_seconds");
+    private static final LatencyHistogram TOPICS_LATENCY = METRICS.histogram("quiz_available_topics_seconds");
+    private static final LongAdder[] SERVED_BY_DIFFICULTY = new LongAdder[QuestionIndex.MAX_DIFFICULTY + 1];
+    private static final Map<String, LongAdder> SERVED_BY_TOPIC = new ConcurrentHashMap<>();
+    private static final AtomicLong ACTIVE_SESSIONS = new AtomicLong();
+    
+    static {
+        for (int d = 0; d < SERVED_BY_DIFFICULTY.length; d++) {
+            SERVED_BY_DIFFICULTY[d] = METRICS.counter("quiz_questions_served_total{difficulty=\"" + d + "\"}");
+        }
+        METRICS.gauge("quiz_sessions_active", ACTIVE_SESSIONS::get);
+    }
+    
+    private static final QuizEngine INSTANCE = new QuizEngine(QuestionBank.getInstance(), QuestionLoader.DEFAULT_PER_BUCKET);
+    
+    static {
+        QuestionLoadCoalescer loads = INSTANCE.getLoadCoalescer();
+        METRICS.gauge("quiz_question_loads_total{outcome=\"executed\"}", loads::getExecutedCount);
+        METRICS.gauge("quiz_question_loads_total{outcome=\"coalesced\"}", loads::getCoalescedCount);
+        METRICS.gauge("quiz_question_loads_total{outcome=\"failed\"}", loads::getFailedCount);
+        METRICS.gauge("quiz_question_loads_in_flight", loads::getInFlightCount);
+        METRICS.gauge("quiz_question_loads_queued", loads::getQueuedCount);
+    }
+    
+    private final QuestionBank questionBank;
+    private final int perBucket;
+    private final QuestionLoadCoalescer loads =
+        new QuestionLoadCoalescer(QuestionLoadCoalescer.DEFAULT_MAX_CONCURRENT_LOADS);
+    
+    public QuizEngine(QuestionBank questionBank, int perBucket) {
+        this.questionBank = questionBank;
+        this.perBucket = perBucket;
+    }
+    
+    /**
+     * Single-flight guard for direct database loads (used when the bank is disabled)
+     */
+    public QuestionLoadCoalescer getLoadCoalescer() {
+        return loads;
+    }
+    
+    /**
+     * Engine over the shared QuestionBank
+     */
+    public static QuizEngine getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Create a session and load its questions
+     */
+    public QuizSession startSession(String username, List<String> topics) throws SQLException {
+        QuizSession session = new QuizSession(username, topics);
+        loadQuestions(session);
+        return session;
+    }
+    
+    /**
+     * Load questions for the session's selected topics
+     * Draws a bounded random sample per topic and difficulty from the shared
+     * QuestionBank; queries the database directly only when the bank is disabled
+     * (every shard holding a selected topic, in parallel, when sharded). Direct loads
+     * of the same topic set that overlap are coalesced into one query.
+     * @return number of questions loaded
+     */
+    public int loadQuestions(QuizSession session) throws SQLException {
+        long start = System.nanoTime();
+        QuestionIndex questions;
+        ShardMap shards = DatabaseConnection.getShardMap();
+        if (questionBank.isEnabled()) {
+            // View over the shared bank; reloads from MySQL only on a miss
+            questions = questionBank.newSessionView(session.getSelectedTopics(), perBucket, null);
+        } else {
+            // Concurrent identical selections share one query; each session shuffles its own view
+            QuestionStore loaded = loads.load(session.getSelectedTopics(), topics -> {
+                if (shards != null) {
+                    return QuestionStore.of(new QuestionLoader(perBucket).loadSample(shards, topics));
+                }
+                // Connection is borrowed from the pool and returned when the block exits
+                try (Connection connection = DatabaseConnection.getReadConnection()) {
+                    return QuestionStore.of(new QuestionLoader(perBucket).loadSample(connection, topics));
+                }
+            });
+            questions = new QuestionIndex(loaded, null);
+        }
+        
+        session.lock.lock();
+        try {
+            if (session.getQuestions() == null) {
+                ACTIVE_SESSIONS.incrementAndGet();
+            }
+            session.setQuestions(questions);
+        } finally {
+            session.lock.unlock();
+        }
+        LOAD_LATENCY.recordSince(start);
+        return questions.size();
+    }
+    
+    /**
+     * Get next question based on current difficulty (AI feature)
+     * With a header-only bank the body is fetched here, batched with the next few likely ones
+     * @return Question object or null if no more questions
+     */
+    public Question nextQuestion(QuizSession session) throws SQLException {
+        return nextQuestion(session, true);
+    }
+    
+    /**
+     * Get next question based on current difficulty, optionally without serving it yet
+     * @param serve false to only fetch it (a GUI prefetch shown later); call markServed
+     *              when it is displayed so time-to-answer and the answer log start there
+     * @return Question object or null if no more questions
+     */
+    public Question nextQuestion(QuizSession session, boolean serve) throws SQLException {
+        long start = System.nanoTime();
+        Question question;
+        session.lock.lock();
+        try {
+            QuestionIndex questions = session.getQuestions();
+            if (questions == null) {
+                return null;
+            }
+            // Random pick at current difficulty, falling back to adjacent levels
+            int difficulty = session.getCurrentDifficulty();
+            question = questions.next(difficulty);
+            if (!questions.hasBodies()) {
+                question = fetchBody(questions, question, difficulty);
+            }
+            session.setCurrentQuestion(question);
+        } finally {
+            session.lock.unlock();
+        }
+        if (question != null && serve) {
+            served(session, question);
+        }
+        NEXT_LATENCY.recordSince(start);
+        return question;
+    }
+    
+    /**
+     * The session's unanswered question if it has one, else the next one
+     * A retried or reloaded request gets the same question back instead of skipping it.
+     */
+    public Question currentOrNextQuestion(QuizSession session) throws SQLException {
+        session.lock.lock();
+        try {
+            Question pending = session.getCurrentQuestion();
+            return pending != null ? pending : nextQuestion(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+    
+    /**
+     * Serve a question fetched with nextQuestion(session, false) now that it is on screen
+     */
+    public void markServed(QuizSession session) {
+        Question question;
+        session.lock.lock();
+        try {
+            question = session.getCurrentQuestion();
+            if (question == null) {
+                return;
+            }
+            session.markServed();
+        } finally {
+            session.lock.unlock();
+        }
+        served(session, question);
+    }
+    
+    private static void served(QuizSession session, Question question) {
+        countServed(question);
+        AnswerLog log = AnswerLog.getInstance();
+        if (log != null) {
+            log.served(session.getId(), question);
+        }
+    }
+    
+    /**
+     * Check the selected option against the session's current question and process it
+     * @param selectedOption option number (1-4)
+     * @return true if correct
+     * @throws IllegalStateException if there is no unanswered question
+     */
+    public boolean submitAnswer(QuizSession session, int selectedOption) {
+        session.lock.lock();
+        try {
+            Question question = session.getCurrentQuestion();
+            if (question == null) {
+                throw new IllegalStateException("No question awaiting an answer");
+            }
+            boolean isCorrect = question.isCorrect(selectedOption);
+            processAnswer(session, isCorrect, selectedOption);
+            return isCorrect;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+    
+    /**
+     * Process answer and adjust difficulty (AI adaptive logic)
+     * @param isCorrect whether the answer was correct
+     * @return difficulty after the answer
+     */
+    public int processAnswer(QuizSession session, boolean isCorrect) {
+        return processAnswer(session, isCorrect, 0);
+    }
+    
+    /**
+     * Process answer and adjust difficulty (AI adaptive logic)
+     * The answer is also counted against the served question in QuestionStats
+     * and appended to the AnswerLog
+     * @param isCorrect whether the answer was correct
+     * @param selectedOption option number (1-4), or 0 if unknown
+     * @return difficulty after the answer
+     */
+    public int processAnswer(QuizSession session, boolean isCorrect, int selectedOption) {
+        long start = System.nanoTime();
+        session.lock.lock();
+        try {
+            int difficulty = session.getCurrentDifficulty();
+            Question answered = session.getCurrentQuestion();
+            if (answered != null) {
+                long answerNanos = start - session.getQuestionServedNanos();
+                QuestionStats.getInstance().record(answered, isCorrect, answerNanos);
+                AnswerLog log = AnswerLog.getInstance();
+                if (log != null) {
+                    log.answered(session.getId(), answered, selectedOption, isCorrect, answerNanos);
+                }
+            }
+            
+            if (isCorrect) {
+                session.recordCorrect(difficulty * POINTS_PER_LEVEL); // Higher difficulty = more points
+                
+                // AI Logic: 3 correct in a row → increase difficulty
+                if (session.getConsecutiveCorrect() >= CORRECT_STREAK_TO_LEVEL_UP
+                        && difficulty < QuestionIndex.MAX_DIFFICULTY) {
+                    session.changeDifficulty(difficulty + 1);
+                }
+            } else {
+                session.recordWrong();
+                
+                // AI Logic: 2 wrong in a row → decrease difficulty (but not below 1)
+                if (session.getConsecutiveWrong() >= WRONG_STREAK_TO_LEVEL_DOWN
+                        && difficulty > QuestionIndex.MIN_DIFFICULTY) {
+                    session.changeDifficulty(difficulty - 1);
+                }
+            }
+            session.setCurrentQuestion(null);
+            ANSWER_LATENCY.recordSince(start);
+            return session.getCurrentDifficulty();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+    
+    /**
+     * Release a session's questions and its place in quiz_sessions_active
+     * For sessions that end without a saved result (abandoned, reaped, no questions);
+     * saveResult calls it too. Safe to call more than once.
+     */
+    public void endSession(QuizSession session) {
+        session.lock.lock();
+        try {
+            if (session.getQuestions() != null) {
+                ACTIVE_SESSIONS.decrementAndGet();
+                session.setQuestions(null);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+    
+    /**
+     * Queue the session's result for the write-behind ResultWriter
+     * @return true if the result was accepted for saving
+     */
+    public boolean saveResult(QuizSession session) {
+        long start = System.nanoTime();
+        QuizResult result;
+        session.lock.lock();
+        try {
+            result = new QuizResult(session.getUsername(), session.getScore(), session.getTopicsAttempted(),
+                session.getCorrectAnswers(), session.getWrongAnswers(), session.getMaxDifficultyReached());
+            endSession(session);
+        } finally {
+            session.lock.unlock();
+        }
+        boolean accepted = ResultWriter.getInstance().submit(result);
+        if (accepted) {
+            Leaderboard.getInstance().record(result);
+            AnalyticsRollup.getInstance().record(result);
+        }
+        SAVE_LATENCY.recordSince(start);
+        return accepted;
+    }
+    
+    /**
+     * Get available topics (from the shard map, the shared bank, or the database when it is disabled)
+     * @return List of unique topic names
+     */
+    public List<String> getAvailableTopics() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            ShardMap shards = DatabaseConnection.getShardMap();
+            if (shards != null) {
+                return shards.getTopics();
+            }
+            if (questionBank.isEnabled()) {
+                return questionBank.getTopics();
+            }
+            
+            List<String> topics = new ArrayList<>();
+            try (Connection connection = DatabaseConnection.getReadConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT DISTINCT topic FROM questions ORDER BY topic")) {
+                while (rs.next()) {
+                    topics.add(rs.getString("topic"));
+                }
+            }
+            return topics;
+        } finally {
+            TOPICS_LATENCY.recordSince(start);
+        }
+    }
+    
+    /**
+     * Swap a header for its full question from the bank's body cache
+     * Questions deleted since the headers were loaded are skipped
+     */
+    private Question fetchBody(QuestionIndex questions, Question header, int difficulty) throws SQLException {
+        int[] upcoming = new int[QuestionBodyCache.BATCH_SIZE - 1];
+        while (header != null) {
+            int count = questions.upcomingIds(difficulty, upcoming);
+            Question body = questionBank.getBodyCache().get(header.getId(), upcoming, count);
+            if (body != null) {
+                return body;
+            }
+            header = questions.next(difficulty);
+        }
+        return null;
+    }
+    
+    /**
+     * Count a served question by difficulty and topic
+     * The topic counter is created once per topic; later lookups do not allocate
+     */
+    private static void countServed(Question question) {
+        SERVED_BY_DIFFICULTY[QuestionIndex.bucketOf(question.getDifficulty())].increment();
+        
+        String topic = question.getTopic();
+        if (topic == null) {
+            return;
+        }
+        LongAdder counter = SERVED_BY_TOPIC.get(topic);
+        if (counter == null) {
+            counter = SERVED_BY_TOPIC.computeIfAbsent(topic,
+                t -> METRICS.counter("quiz_questions_served_total{topic=\"" + t.replace("\"", "'") + "\"}"));
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,196 @@
+package service;
+
+import model.Question;
+import model.QuizResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * QuizSession - Compact per-user quiz state
+ * Holds primitive counters, the current difficulty and a cursor (QuestionIndex)
+ * into the shared QuestionBank. All logic lives in the stateless QuizEngine.
+ *
+ * A session is driven by one user at a time; QuizEngine holds its lock so
+ * duplicate requests for the same session cannot interleave. It is a ReentrantLock
+ * rather than the monitor because a header-only bank fetches question bodies over
+ * JDBC while it is held, which would pin the HTTP server's virtual threads.
+ */
+public class QuizSession {
+    
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    
+    final ReentrantLock lock = new ReentrantLock();
+    
+    private final long id;
+    private String username;
+    private List<String> selectedTopics;
+    private QuestionIndex questions;
+    private Question currentQuestion;
+    private long questionServedNanos;
+    private volatile long lastActivityMillis;
+    
+    // Counters
+    private int score;
+    private int correctAnswers;
+    private int wrongAnswers;
+    
+    // Adaptive difficulty state (all values fit in a byte)
+    private byte currentDifficulty;
+    private byte maxDifficultyReached;
+    private byte consecutiveCorrect;
+    private byte consecutiveWrong;
+    
+    /**
+     * Create an empty session starting at easy difficulty
+     */
+    public QuizSession(String username, List<String> selectedTopics) {
+        this.id = ID_SEQUENCE.incrementAndGet();
+        this.username = username;
+        this.selectedTopics = selectedTopics != null ? selectedTopics : new ArrayList<>();
+        this.currentDifficulty = 1; // Start with easy
+        this.maxDifficultyReached = 1;
+        this.lastActivityMillis = System.currentTimeMillis();
+    }
+    
+    // Package-private mutators used by QuizEngine
+    
+    void setQuestions(QuestionIndex questions) {
+        this.questions = questions;
+    }
+    
+    QuestionIndex getQuestions() {
+        return questions;
+    }
+    
+    void setCurrentQuestion(Question currentQuestion) {
+        this.currentQuestion = currentQuestion;
+        if (currentQuestion != null) {
+            questionServedNanos = System.nanoTime();
+        }
+    }
+    
+    /**
+     * Restart the time-to-answer clock (the question was fetched ahead of being shown)
+     */
+    void markServed() {
+        questionServedNanos = System.nanoTime();
+    }
+    
+    /**
+     * When the current question was served, for time-to-answer
+     */
+    long getQuestionServedNanos() {
+        return questionServedNanos;
+    }
+    
+    void recordCorrect(int points) {
+        score += points;
+        correctAnswers++;
+        consecutiveCorrect++;
+        consecutiveWrong = 0;
+    }
+    
+    void recordWrong() {
+        wrongAnswers++;
+        consecutiveWrong++;
+        consecutiveCorrect = 0;
+    }
+    
+    void changeDifficulty(int difficulty) {
+        currentDifficulty = (byte) difficulty;
+        consecutiveCorrect = 0;
+        consecutiveWrong = 0;
+        if (difficulty > maxDifficultyReached) {
+            maxDifficultyReached = (byte) difficulty;
+        }
+    }
+    
+    int getConsecutiveCorrect() {
+        return consecutiveCorrect;
+    }
+    
+    int getConsecutiveWrong() {
+        return consecutiveWrong;
+    }
+    
+    // Public accessors
+    
+    public long getId() {
+        return id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public List<String> getSelectedTopics() {
+        return selectedTopics;
+    }
+    
+    /**
+     * Set selected topics (empty list = all topics)
+     */
+    public void setSelectedTopics(List<String> selectedTopics) {
+        this.selectedTopics = selectedTopics;
+    }
+    
+    public String getTopicsAttempted() {
+        return selectedTopics.isEmpty() ? QuizResult.ALL_TOPICS : String.join(", ", selectedTopics);
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getCorrectAnswers() {
+        return correctAnswers;
+    }
+    
+    public int getWrongAnswers() {
+        return wrongAnswers;
+    }
+    
+    public int getTotalQuestions() {
+        return correctAnswers + wrongAnswers;
+    }
+    
+    public int getCurrentDifficulty() {
+        return currentDifficulty;
+    }
+    
+    public int getMaxDifficultyReached() {
+        return maxDifficultyReached;
+    }
+    
+    /**
+     * Question served last and not yet answered (null if none)
+     */
+    public Question getCurrentQuestion() {
+        return currentQuestion;
+    }
+    
+    /**
+     * Record activity so idle-session reaping skips this session
+     */
+    public void touch() {
+        lastActivityMillis = System.currentTimeMillis();
+    }
+    
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+    
+    /**
+     * Questions left in this session's pool
+     */
+    public int getRemainingQuestions() {
+        return questions == null ? 0 : questions.size();
+    }
+}
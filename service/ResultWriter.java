@@ -0,0 +1,416 @@
+package service;
+
+import db.DatabaseConnection;
+import metrics.MetricsRegistry;
+import model.QuizResult;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ResultWriter - Write-behind sink for quiz results
+ * Results are queued and written by a background thread as JDBC batch inserts,
+ * flushed when a batch fills up or after a short delay.
+ *
+ * - Backpressure: submit() blocks briefly when the queue is full
+ * - Durability: batches that cannot reach MySQL (and submissions that still find
+ *   the queue full) are appended to a local spill file and replayed later
+ * - Results left in the spill file by an earlier run can be reported to a listener as
+ *   they are replayed (see replayThenMark), since no live record() ever saw them
+ * - Shutdown: shutdown() drains the queue before the pool is closed
+ */
+public class ResultWriter {
+
+    public static final int QUEUE_CAPACITY = 10_000;
+    public static final int BATCH_SIZE = 200;
+    public static final long FLUSH_DELAY_MS = 200;
+    private static final long SUBMIT_TIMEOUT_MS = 500;
+    private static final long REPLAY_INTERVAL_MS = 5_000;
+    private static final String SPILL_FILE = "results-spill.dat";
+    private static final int SPILL_MAGIC = 0x5253504C; // "RSPL": records with null-aware strings
+
+    private static final String INSERT_SQL = "INSERT INTO users (username, score, topic, correct_answers, "
+        + "wrong_answers, max_difficulty_reached) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static ResultWriter instance = null;
+
+    private final BlockingQueue<QuizResult> queue;
+    private final File spillFile;
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private long lastReplayAttempt;
+    private int inherited; // results at the head of the spill file written by an earlier run
+    private Consumer<QuizResult> replayListener;
+
+    // Statistics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+
+    public ResultWriter(int capacity, File spillFile) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.spillFile = spillFile;
+        Spill previous = readSpill();
+        this.inherited = previous == null ? 0 : previous.results.size();
+        this.flusher = new Thread(this::run, "result-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Shared writer, started on first use
+     */
+    public static synchronized ResultWriter getInstance() {
+        if (instance == null) {
+            instance = new ResultWriter(QUEUE_CAPACITY, new File(SPILL_FILE));
+            
+            ResultWriter writer = instance;
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.gauge("quiz_result_queue_depth", writer::getQueueDepth);
+            metrics.gauge("quiz_results_written", writer::getWrittenCount);
+            metrics.gauge("quiz_results_spilled", writer::getSpilledCount);
+        }
+        return instance;
+    }
+
+    /**
+     * Stop the shared writer if it was started, draining pending results
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Queue a result for writing; blocks briefly if the queue is full
+     * @return true if the result was queued or spilled to disk
+     */
+    public boolean submit(QuizResult result) {
+        submitted.incrementAndGet();
+        try {
+            if (running && queue.offer(result, SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Queue still full (or shutting down): persist locally rather than drop
+        List<QuizResult> single = new ArrayList<>(1);
+        single.add(result);
+        return spill(single);
+    }
+
+    /**
+     * Background loop: gather a batch by size or delay, then write it
+     */
+    private void run() {
+        List<QuizResult> batch = new ArrayList<>(BATCH_SIZE);
+        replaySpill();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                QuizResult first = queue.poll(FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_DELAY_MS);
+                    while (batch.size() < BATCH_SIZE) {
+                        long wait = deadline - System.nanoTime();
+                        QuizResult next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // shutdown() interrupts to cut the wait short; drain what is left
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+            }
+
+            try {
+                if (!batch.isEmpty() && !writeBatch(batch)) {
+                    spill(batch);
+                }
+                if (System.currentTimeMillis() - lastReplayAttempt > REPLAY_INTERVAL_MS) {
+                    replaySpill();
+                }
+            } catch (RuntimeException e) {
+                // Never let one bad result stop the writer; later results must still be saved
+                System.err.println("✗ Result writer dropped " + batch.size() + " results: " + e);
+                e.printStackTrace();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Insert a batch in one transaction
+     * @return true if the batch was committed
+     */
+    private boolean writeBatch(List<QuizResult> batch) {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+                for (QuizResult result : batch) {
+                    stmt.setString(1, result.getUsername());
+                    stmt.setInt(2, result.getScore());
+                    stmt.setString(3, result.getTopic());
+                    stmt.setInt(4, result.getCorrectAnswers());
+                    stmt.setInt(5, result.getWrongAnswers());
+                    stmt.setInt(6, result.getMaxDifficultyReached());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("✗ Error saving " + batch.size() + " results: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Append results to the spill file and fsync it
+     */
+    private synchronized boolean spill(List<QuizResult> results) {
+        try {
+            writeRecords(spillFile, results, true);
+            spilled.addAndGet(results.size());
+            System.err.println("⚠ Spilled " + results.size() + " results to " + spillFile.getName());
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Could not spill results to " + spillFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeRecords(File target, List<QuizResult> results, boolean append) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(results.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (!append || target.length() == 0) {
+                out.writeInt(SPILL_MAGIC);
+            }
+            for (QuizResult result : results) {
+                writeString(out, result.getUsername());
+                out.writeInt(result.getScore());
+                writeString(out, result.getTopic());
+                out.writeInt(result.getCorrectAnswers());
+                out.writeInt(result.getWrongAnswers());
+                out.writeInt(result.getMaxDifficultyReached());
+            }
+        }
+
+        // One write per call so a crash tears at most the last record
+        try (FileOutputStream file = new FileOutputStream(target, append)) {
+            file.write(bytes.toByteArray());
+            file.getFD().sync();
+        }
+    }
+
+    /**
+     * Presence byte, then the string if there is one
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in, boolean nullable) throws IOException {
+        return !nullable || in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Mark - Reads a position in the saved results, e.g. SELECT MAX(id) FROM users
+     */
+    public interface Mark {
+        long read() throws SQLException;
+    }
+
+    /**
+     * Replay the spill file now, then read a mark before any later replay can write
+     * Results from an earlier run's spill that are still written after the mark (the database
+     * refused them just now) go to the listener as they are replayed: they land above the mark
+     * and no live caller counted them. Results spilled by this process are not reported.
+     * @return the mark
+     */
+    public synchronized long replayThenMark(Mark mark, Consumer<QuizResult> listener) throws SQLException {
+        replaySpill();
+        if (inherited > 0) {
+            System.err.println("⚠ " + inherited + " spilled results not replayed yet; they are counted when they are");
+        }
+        try {
+            return mark.read();
+        } finally {
+            replayListener = listener; // even without a mark, later replays are still counted
+        }
+    }
+
+    /**
+     * Spill file contents: every complete record, and whether the file has the null-aware header
+     */
+    private static final class Spill {
+
+        private final List<QuizResult> results = new ArrayList<>();
+        private boolean nullable;
+    }
+
+    /**
+     * Read the spill file, or null if it cannot be read
+     * Files from before the null-aware format (no SPILL_MAGIC header) are still read
+     */
+    private Spill readSpill() {
+        Spill spill = new Spill();
+        if (!spillFile.exists() || spillFile.length() == 0) {
+            return spill;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)))) {
+            in.mark(4);
+            spill.nullable = in.readInt() == SPILL_MAGIC;
+            if (!spill.nullable) {
+                in.reset();
+            }
+            while (true) {
+                spill.results.add(new QuizResult(readString(in, spill.nullable), in.readInt(),
+                    readString(in, spill.nullable), in.readInt(), in.readInt(), in.readInt()));
+            }
+        } catch (EOFException e) {
+            // End of file; a torn trailing record from a crash is skipped
+            return spill;
+        } catch (IOException e) {
+            System.err.println("✗ Could not read spill file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write spilled results back to MySQL, then delete the spill file
+     */
+    private synchronized void replaySpill() {
+        lastReplayAttempt = System.currentTimeMillis();
+        if (!spillFile.exists() || spillFile.length() == 0) {
+            return;
+        }
+        Spill spill = readSpill();
+        if (spill == null) {
+            return;
+        }
+
+        List<QuizResult> pending = spill.results;
+        boolean nullable = spill.nullable;
+        for (int from = 0; from < pending.size(); from += BATCH_SIZE) {
+            List<QuizResult> batch = pending.subList(from, Math.min(from + BATCH_SIZE, pending.size()));
+            if (!writeBatch(batch)) {
+                // Still unavailable: atomically replace the file with what is left
+                // (a legacy file is always rewritten so later spills can append to it)
+                if (from > 0 || !nullable) {
+                    File tmp = new File(spillFile.getPath() + ".tmp");
+                    try {
+                        writeRecords(tmp, pending.subList(from, pending.size()), false);
+                        Files.move(tmp.toPath(), spillFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        System.err.println("✗ Could not rewrite spill file: " + e.getMessage());
+                    }
+                }
+                return;
+            }
+            replayed.addAndGet(batch.size());
+
+            // Results from an earlier run come first in the file
+            int earlier = Math.min(batch.size(), inherited);
+            if (replayListener != null) {
+                for (int i = 0; i < earlier; i++) {
+                    replayListener.accept(batch.get(i));
+                }
+            }
+            inherited -= earlier;
+        }
+
+        if (spillFile.delete()) {
+            System.out.println("✓ Replayed " + pending.size() + " spilled results");
+        }
+    }
+
+    /**
+     * Stop accepting results and wait for the queue to drain
+     */
+    public void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("✓ " + getStatsSummary());
+    }
+
+    // Statistics
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    public long getReplayedCount() {
+        return replayed.get();
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String getStatsSummary() {
+        return String.format("results submitted=%d written=%d batches=%d queued=%d spilled=%d replayed=%d",
+            getSubmittedCount(), getWrittenCount(), getBatchCount(), getQueueDepth(),
+            getSpilledCount(), getReplayedCount());
+    }
+}